@@ -18,7 +18,7 @@ public class CorsConfig implements WebMvcConfigurer {
     @Value("${cors.allowed-origins:http://localhost:3000}")
     private String allowedOrigins;
 
-    @Value("${cors.allowed-methods:GET,POST,OPTIONS}")
+    @Value("${cors.allowed-methods:GET,POST,DELETE,OPTIONS}")
     private String allowedMethods;
 
     @Override
@@ -27,6 +27,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOrigins(allowedOrigins.split(","))
                 .allowedMethods(allowedMethods.split(","))
                 .allowedHeaders("*")
+                .exposedHeaders("X-Submission-Id")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -37,6 +38,7 @@ public class CorsConfig implements WebMvcConfigurer {
         configuration.setAllowedOrigins(Arrays.asList(allowedOrigins.split(",")));
         configuration.setAllowedMethods(Arrays.asList(allowedMethods.split(",")));
         configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of("X-Submission-Id"));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -3,6 +3,9 @@ package com.coderplatform.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 @Configuration
 @ConfigurationProperties(prefix = "execution")
 public class ExecutionConfig {
@@ -11,6 +14,29 @@ public class ExecutionConfig {
     private long memoryLimit = 1048576;     // 1MB default
     private long maxOutputSize = 65536;     // 64KB default
     private String tempDirectory = "/tmp/coder-platform";
+    private long heartbeatInterval = 1000;  // ms between disconnect probes, 0 disables
+    private boolean affinityEnabled = false;  // pin compiles and runs to exclusive cores
+    private String compileCpus = "";        // e.g. "0-1"; empty shares the run cores
+    private String runCpus = "";            // e.g. "2-7"; empty means every core not reserved for compiles
+    private int coresPerRun = 1;
+    private boolean compileCacheEnabled = true;  // incremental C, C++, Java and Rust builds
+    private String compileCacheDirectory = "/tmp/coder-platform/compile-cache";
+    private long compileCacheMaxSize = 268435456;  // 256MB of cached objects and classes
+    private int prepareThreads = Runtime.getRuntime().availableProcessors();  // pipeline stage pools
+    private int compileThreads = Math.max(Runtime.getRuntime().availableProcessors() / 2, 1);
+    private int runThreads = Runtime.getRuntime().availableProcessors() * 2;  // runs often wait on I/O
+    private int finalizeThreads = 2;
+    private int batchParallelism = Runtime.getRuntime().availableProcessors();
+    private int batchWindowSize = 64;       // requests read ahead per batch
+    private Set<String> zygoteLanguages = new LinkedHashSet<>();  // python, ruby, perl
+    private int replMaxSessions = 32;       // live REPL sessions across all clients
+    private long replIdleTimeout = 300000;  // 5 minutes without an eval closes a session
+    private long replCpuLimit = 60000;      // CPU ms a session's processes may use in total
+    private boolean journalEnabled = true;
+    private String journalDirectory = "/tmp/coder-platform/journal";
+    private long journalSegmentSize = 16777216;  // 16MB per segment file
+    private int journalMaxSegments = 8;
+    private int journalRingSize = 8192;         // pending records before new ones are dropped
     
     public long getTimeout() {
         return timeout;
@@ -43,4 +69,188 @@ public class ExecutionConfig {
     public void setTempDirectory(String tempDirectory) {
         this.tempDirectory = tempDirectory;
     }
+    
+    public int getPrepareThreads() {
+        return prepareThreads;
+    }
+
+    public void setPrepareThreads(int prepareThreads) {
+        this.prepareThreads = prepareThreads;
+    }
+
+    public int getCompileThreads() {
+        return compileThreads;
+    }
+
+    public void setCompileThreads(int compileThreads) {
+        this.compileThreads = compileThreads;
+    }
+
+    public int getRunThreads() {
+        return runThreads;
+    }
+
+    public void setRunThreads(int runThreads) {
+        this.runThreads = runThreads;
+    }
+
+    public int getFinalizeThreads() {
+        return finalizeThreads;
+    }
+
+    public void setFinalizeThreads(int finalizeThreads) {
+        this.finalizeThreads = finalizeThreads;
+    }
+
+    public int getBatchParallelism() {
+        return batchParallelism;
+    }
+    
+    public void setBatchParallelism(int batchParallelism) {
+        this.batchParallelism = batchParallelism;
+    }
+    
+    public int getBatchWindowSize() {
+        return batchWindowSize;
+    }
+    
+    public void setBatchWindowSize(int batchWindowSize) {
+        this.batchWindowSize = batchWindowSize;
+    }
+    
+    public Set<String> getZygoteLanguages() {
+        return zygoteLanguages;
+    }
+    
+    public void setZygoteLanguages(Set<String> zygoteLanguages) {
+        this.zygoteLanguages = zygoteLanguages;
+    }
+    
+    public boolean isCompileCacheEnabled() {
+        return compileCacheEnabled;
+    }
+
+    public void setCompileCacheEnabled(boolean compileCacheEnabled) {
+        this.compileCacheEnabled = compileCacheEnabled;
+    }
+
+    public String getCompileCacheDirectory() {
+        return compileCacheDirectory;
+    }
+
+    public void setCompileCacheDirectory(String compileCacheDirectory) {
+        this.compileCacheDirectory = compileCacheDirectory;
+    }
+
+    public long getCompileCacheMaxSize() {
+        return compileCacheMaxSize;
+    }
+
+    public void setCompileCacheMaxSize(long compileCacheMaxSize) {
+        this.compileCacheMaxSize = compileCacheMaxSize;
+    }
+
+    public int getReplMaxSessions() {
+        return replMaxSessions;
+    }
+
+    public void setReplMaxSessions(int replMaxSessions) {
+        this.replMaxSessions = replMaxSessions;
+    }
+
+    public long getReplIdleTimeout() {
+        return replIdleTimeout;
+    }
+
+    public void setReplIdleTimeout(long replIdleTimeout) {
+        this.replIdleTimeout = replIdleTimeout;
+    }
+
+    public long getReplCpuLimit() {
+        return replCpuLimit;
+    }
+
+    public void setReplCpuLimit(long replCpuLimit) {
+        this.replCpuLimit = replCpuLimit;
+    }
+
+    public boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+    
+    public void setJournalEnabled(boolean journalEnabled) {
+        this.journalEnabled = journalEnabled;
+    }
+    
+    public String getJournalDirectory() {
+        return journalDirectory;
+    }
+    
+    public void setJournalDirectory(String journalDirectory) {
+        this.journalDirectory = journalDirectory;
+    }
+    
+    public long getJournalSegmentSize() {
+        return journalSegmentSize;
+    }
+    
+    public void setJournalSegmentSize(long journalSegmentSize) {
+        this.journalSegmentSize = journalSegmentSize;
+    }
+    
+    public int getJournalMaxSegments() {
+        return journalMaxSegments;
+    }
+    
+    public void setJournalMaxSegments(int journalMaxSegments) {
+        this.journalMaxSegments = journalMaxSegments;
+    }
+    
+    public int getJournalRingSize() {
+        return journalRingSize;
+    }
+    
+    public void setJournalRingSize(int journalRingSize) {
+        this.journalRingSize = journalRingSize;
+    }
+    
+    public long getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+    
+    public void setHeartbeatInterval(long heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+    
+    public boolean isAffinityEnabled() {
+        return affinityEnabled;
+    }
+    
+    public void setAffinityEnabled(boolean affinityEnabled) {
+        this.affinityEnabled = affinityEnabled;
+    }
+    
+    public String getCompileCpus() {
+        return compileCpus;
+    }
+    
+    public void setCompileCpus(String compileCpus) {
+        this.compileCpus = compileCpus;
+    }
+    
+    public String getRunCpus() {
+        return runCpus;
+    }
+    
+    public void setRunCpus(String runCpus) {
+        this.runCpus = runCpus;
+    }
+    
+    public int getCoresPerRun() {
+        return coresPerRun;
+    }
+    
+    public void setCoresPerRun(int coresPerRun) {
+        this.coresPerRun = coresPerRun;
+    }
 }
@@ -1,15 +1,29 @@
 package com.coderplatform.controller;
 
+import com.coderplatform.model.BatchExecutionResult;
 import com.coderplatform.model.CodeExecutionRequest;
 import com.coderplatform.model.CodeExecutionResponse;
 import com.coderplatform.model.LanguageInfo;
+import com.coderplatform.service.BatchExecutionService;
 import com.coderplatform.service.CodeExecutionService;
+import com.coderplatform.service.ExecutionHandle;
+import com.coderplatform.service.ExecutionRegistry;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -19,23 +33,109 @@ public class CodeExecutionController {
 
     private static final Logger logger = LoggerFactory.getLogger(CodeExecutionController.class);
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    // Client-chosen id for DELETE /api/submissions/{id}; echoed back (or generated) on the response
+    static final String SUBMISSION_ID_HEADER = "X-Submission-Id";
+    // Remaining time budget in milliseconds, covering queueing, compiling and running
+    static final String DEADLINE_HEADER = "X-Deadline-Ms";
+
     private final CodeExecutionService executionService;
+    private final BatchExecutionService batchExecutionService;
+    private final ObjectMapper objectMapper;
+    private final ExecutionRegistry executionRegistry;
+    private final DisconnectWatchdog disconnectWatchdog;
 
-    public CodeExecutionController(CodeExecutionService executionService) {
+    public CodeExecutionController(CodeExecutionService executionService,
+                                   BatchExecutionService batchExecutionService,
+                                   ObjectMapper objectMapper,
+                                   ExecutionRegistry executionRegistry,
+                                   DisconnectWatchdog disconnectWatchdog) {
         this.executionService = executionService;
+        this.batchExecutionService = batchExecutionService;
+        this.objectMapper = objectMapper;
+        this.executionRegistry = executionRegistry;
+        this.disconnectWatchdog = disconnectWatchdog;
     }
 
+    /**
+     * Runs the submission on the request thread while the watchdog probes the connection, so a
+     * client that hangs up gets its submission cancelled and its process tree killed.
+     */
     @PostMapping("/execute")
-    public ResponseEntity<CodeExecutionResponse> executeCode(@Valid @RequestBody CodeExecutionRequest request) {
+    public void executeCode(@Valid @RequestBody CodeExecutionRequest request,
+                            @RequestHeader(value = SUBMISSION_ID_HEADER, required = false) String submissionId,
+                            @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs,
+                            HttpServletResponse httpResponse) throws IOException {
         logger.info("Received execution request for language: {}", request.getLanguage());
-        logger.debug("Code length: {} characters", request.getCode().length());
+        if (request.hasFiles()) {
+            logger.debug("Project with {} files", request.getFiles().size());
+        } else {
+            logger.debug("Code length: {} characters", request.getCode().length());
+        }
+
+        ExecutionHandle handle = executionRegistry.register(submissionId, deadlineMs);
+        httpResponse.setStatus(HttpServletResponse.SC_OK);
+        httpResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        httpResponse.setHeader(SUBMISSION_ID_HEADER, handle.getId());
+        OutputStream out = httpResponse.getOutputStream();
 
-        CodeExecutionResponse response = executionService.execute(request);
+        CodeExecutionResponse response;
+        DisconnectWatchdog.Watch watch = disconnectWatchdog.watch(out, handle);
+        try {
+            response = executionService.execute(request, handle);
+        } finally {
+            watch.close();
+            executionRegistry.unregister(handle);
+        }
 
         logger.info("Execution completed with status: {} in {}ms", 
                    response.getStatus(), response.getExecutionTime());
 
-        return ResponseEntity.ok(response);
+        // Nobody is left to read the result
+        if (!watch.isDisconnected()) {
+            out.write(objectMapper.writeValueAsBytes(response));
+        }
+    }
+
+    @DeleteMapping("/submissions/{id}")
+    public ResponseEntity<Void> cancelSubmission(@PathVariable String id) {
+        if (!executionRegistry.cancel(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        logger.info("Cancelled submission {}", id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Accepts a JSON array of execution requests and streams one NDJSON line per request as it
+     * completes. The array is parsed incrementally from the request body rather than bound up front.
+     */
+    @PostMapping(value = "/execute/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> executeBatch(
+            HttpServletRequest httpRequest,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        ObjectWriter lineWriter = objectMapper.writerFor(BatchExecutionResult.class);
+
+        StreamingResponseBody body = out -> {
+            try (MappingIterator<CodeExecutionRequest> requests =
+                         objectMapper.readerFor(CodeExecutionRequest.class).readValues(httpRequest.getInputStream())) {
+                int count = batchExecutionService.executeBatch(requests, deadlineMs, result -> {
+                    try {
+                        out.write(lineWriter.writeValueAsBytes(result));
+                        out.write('\n');
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                logger.info("Batch completed with {} executions", count);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 
     @GetMapping("/languages")
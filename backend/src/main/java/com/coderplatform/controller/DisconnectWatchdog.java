@@ -0,0 +1,99 @@
+package com.coderplatform.controller;
+
+import com.coderplatform.config.ExecutionConfig;
+import com.coderplatform.service.ExecutionHandle;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects clients that hang up while their submission is still running.
+ *
+ * The servlet container only notices a closed connection when it writes to it, so long-running
+ * JSON responses get a single space written and flushed every heartbeat interval. Leading
+ * whitespace is valid JSON, and the first failed write cancels the submission.
+ */
+@Component
+class DisconnectWatchdog {
+
+    private static final Logger logger = LoggerFactory.getLogger(DisconnectWatchdog.class);
+
+    private final ExecutionConfig config;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "disconnect-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    DisconnectWatchdog(ExecutionConfig config) {
+        this.config = config;
+    }
+
+    Watch watch(OutputStream out, ExecutionHandle handle) {
+        Watch watch = new Watch(out, handle);
+        long interval = config.getHeartbeatInterval();
+        if (interval > 0) {
+            watch.task = scheduler.scheduleWithFixedDelay(watch::beat, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        return watch;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Closing the watch stops the heartbeat and waits out one already in progress, so the
+     * response stream is safe to write from the request thread afterwards.
+     */
+    static class Watch implements AutoCloseable {
+
+        private final OutputStream out;
+        private final ExecutionHandle handle;
+        private ScheduledFuture<?> task;
+        private boolean closed;
+        private volatile boolean disconnected;
+
+        private Watch(OutputStream out, ExecutionHandle handle) {
+            this.out = out;
+            this.handle = handle;
+        }
+
+        private synchronized void beat() {
+            if (closed) {
+                return;
+            }
+            try {
+                out.write(' ');
+                out.flush();
+            } catch (IOException e) {
+                logger.info("Client went away, cancelling submission {}", handle.getId());
+                disconnected = true;
+                handle.cancel();
+                closed = true;
+                task.cancel(false);
+            }
+        }
+
+        boolean isDisconnected() {
+            return disconnected;
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+    }
+}
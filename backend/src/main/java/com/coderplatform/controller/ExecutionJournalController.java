@@ -0,0 +1,37 @@
+package com.coderplatform.controller;
+
+import com.coderplatform.model.ExecutionRecord;
+import com.coderplatform.model.ExecutionSummary;
+import com.coderplatform.service.ExecutionJournal;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.List;
+
+@Lazy
+@RestController
+@RequestMapping("/api/executions")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+public class ExecutionJournalController {
+
+    private static final int MAX_RECENT = 1000;
+
+    private final ExecutionJournal journal;
+
+    public ExecutionJournalController(ExecutionJournal journal) {
+        this.journal = journal;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ExecutionRecord>> recent(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(journal.readRecent(Math.min(Math.max(limit, 1), MAX_RECENT)));
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<ExecutionSummary> summary(@RequestParam(defaultValue = "60") long minutes) {
+        long since = System.currentTimeMillis() - Duration.ofMinutes(Math.max(minutes, 0)).toMillis();
+        return ResponseEntity.ok(journal.summarize(since));
+    }
+}
@@ -0,0 +1,27 @@
+package com.coderplatform.controller;
+
+import com.coderplatform.model.PipelineStageStats;
+import com.coderplatform.service.ExecutionPipeline;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Lazy
+@RestController
+@RequestMapping("/api/pipeline")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+public class PipelineController {
+
+    private final ExecutionPipeline pipeline;
+
+    public PipelineController(ExecutionPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    @GetMapping("/stages")
+    public ResponseEntity<List<PipelineStageStats>> stages() {
+        return ResponseEntity.ok(pipeline.getStats());
+    }
+}
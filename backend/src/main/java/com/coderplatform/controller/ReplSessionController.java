@@ -0,0 +1,81 @@
+package com.coderplatform.controller;
+
+import com.coderplatform.model.Language;
+import com.coderplatform.model.ReplEvalRequest;
+import com.coderplatform.model.ReplEvalResponse;
+import com.coderplatform.model.ReplSessionInfo;
+import com.coderplatform.model.ReplSessionRequest;
+import com.coderplatform.service.ReplSessionManager;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * Stateful REPL sessions: create one, evaluate snippets against its live interpreter, and
+ * delete it when done. Idle sessions are closed by the server. Created on first use, like the
+ * session manager, so replicas that never serve a REPL do not pay for it at startup.
+ */
+@Lazy
+@RestController
+@RequestMapping("/api/sessions")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+public class ReplSessionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplSessionController.class);
+
+    private final ReplSessionManager sessionManager;
+
+    public ReplSessionController(ReplSessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReplSessionInfo> createSession(@Valid @RequestBody ReplSessionRequest request)
+            throws IOException {
+        Language language;
+        try {
+            language = Language.fromId(request.getLanguage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ReplSessionInfo session;
+        try {
+            session = sessionManager.create(language);
+        } catch (IllegalArgumentException e) {
+            logger.debug(e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        if (session == null) {
+            logger.warn("Rejected {} REPL session: session limit reached", language);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(session);
+    }
+
+    @PostMapping("/{id}/eval")
+    public ResponseEntity<ReplEvalResponse> eval(@PathVariable String id,
+                                                 @Valid @RequestBody ReplEvalRequest request) {
+        ReplEvalResponse response = sessionManager.eval(id, request.getCode());
+        if (response == null) {
+            return ResponseEntity.notFound().build();
+        }
+        logger.debug("Session {} eval completed with status: {} in {}ms",
+                id, response.getStatus(), response.getExecutionTime());
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSession(@PathVariable String id) {
+        if (!sessionManager.close(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.coderplatform.model;
+
+/**
+ * One line of a batch execution stream. The index refers to the position of the
+ * request in the submitted array, since results are emitted in completion order.
+ */
+public class BatchExecutionResult {
+
+    private int index;
+    private String language;
+    private CodeExecutionResponse result;
+
+    public BatchExecutionResult() {
+    }
+
+    public BatchExecutionResult(int index, String language, CodeExecutionResponse result) {
+        this.index = index;
+        this.language = language;
+        this.result = result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    public CodeExecutionResponse getResult() {
+        return result;
+    }
+
+    public void setResult(CodeExecutionResponse result) {
+        this.result = result;
+    }
+}
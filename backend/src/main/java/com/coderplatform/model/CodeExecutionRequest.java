@@ -1,18 +1,33 @@
 package com.coderplatform.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.util.List;
+
 public class CodeExecutionRequest {
 
     @NotBlank(message = "Language is required")
     private String language;
 
-    @NotBlank(message = "Code is required")
     private String code;
 
+    @Valid
+    private List<SourceFile> files;  // multi-file submission, used instead of code
+
     private String stdin = "";
 
+    private boolean debug;  // return a phase timeline with the response
+
+    private String expectedOutput;  // judge the run against this output when set
+
+    private JudgeMode judgeMode = JudgeMode.EXACT;
+
+    private double floatTolerance = 1e-6;  // absolute or relative, for JudgeMode.FLOAT
+
     public CodeExecutionRequest() {
     }
 
@@ -38,6 +53,24 @@ public class CodeExecutionRequest {
         this.code = code;
     }
 
+    public List<SourceFile> getFiles() {
+        return files;
+    }
+
+    public void setFiles(List<SourceFile> files) {
+        this.files = files;
+    }
+
+    public boolean hasFiles() {
+        return files != null && !files.isEmpty();
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Code is required")
+    public boolean isSourceProvided() {
+        return hasFiles() || (code != null && !code.isBlank());
+    }
+
     public String getStdin() {
         return stdin;
     }
@@ -45,4 +78,36 @@ public class CodeExecutionRequest {
     public void setStdin(String stdin) {
         this.stdin = stdin;
     }
+
+    public boolean isDebug() {
+        return debug;
+    }
+
+    public void setDebug(boolean debug) {
+        this.debug = debug;
+    }
+
+    public String getExpectedOutput() {
+        return expectedOutput;
+    }
+
+    public void setExpectedOutput(String expectedOutput) {
+        this.expectedOutput = expectedOutput;
+    }
+
+    public JudgeMode getJudgeMode() {
+        return judgeMode;
+    }
+
+    public void setJudgeMode(JudgeMode judgeMode) {
+        this.judgeMode = judgeMode;
+    }
+
+    public double getFloatTolerance() {
+        return floatTolerance;
+    }
+
+    public void setFloatTolerance(double floatTolerance) {
+        this.floatTolerance = floatTolerance;
+    }
 }
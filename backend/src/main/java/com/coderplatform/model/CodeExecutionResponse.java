@@ -1,5 +1,9 @@
 package com.coderplatform.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
 public class CodeExecutionResponse {
 
     public enum Status {
@@ -8,7 +12,9 @@ public class CodeExecutionResponse {
         RUNTIME_ERROR,
         TIMEOUT,
         MEMORY_EXCEEDED,
-        ERROR
+        ERROR,
+        CANCELLED,
+        WRONG_ANSWER
     }
 
     private String output;
@@ -16,6 +22,21 @@ public class CodeExecutionResponse {
     private long executionTime; // in milliseconds
     private Status status;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<PhaseTiming> timeline;     // only populated for debug requests
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Integer> compileCores;     // only populated when CPU affinity is enabled
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Integer> assignedCores;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private CompileStats compileStats;      // only populated for incremental builds
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private JudgeVerdict verdict;           // only populated when expected output was given
+
     public CodeExecutionResponse() {
     }
 
@@ -48,6 +69,20 @@ public class CodeExecutionResponse {
                                          executionTime, Status.MEMORY_EXCEEDED);
     }
 
+    public static CodeExecutionResponse cancelled(String output, long executionTime) {
+        return new CodeExecutionResponse(output, "Execution was cancelled.", executionTime, Status.CANCELLED);
+    }
+
+    public static CodeExecutionResponse wrongAnswer(String output, long executionTime) {
+        return new CodeExecutionResponse(output, "Output does not match the expected output.",
+                                         executionTime, Status.WRONG_ANSWER);
+    }
+
+    public static CodeExecutionResponse outputLimitExceeded(String output, long executionTime) {
+        return new CodeExecutionResponse(output, "Output limit exceeded. Your program printed too much output.",
+                                         executionTime, Status.WRONG_ANSWER);
+    }
+
     public static CodeExecutionResponse error(String error) {
         return new CodeExecutionResponse("", error, 0, Status.ERROR);
     }
@@ -83,4 +118,44 @@ public class CodeExecutionResponse {
     public void setStatus(Status status) {
         this.status = status;
     }
+
+    public List<PhaseTiming> getTimeline() {
+        return timeline;
+    }
+
+    public void setTimeline(List<PhaseTiming> timeline) {
+        this.timeline = timeline;
+    }
+
+    public List<Integer> getCompileCores() {
+        return compileCores;
+    }
+
+    public void setCompileCores(List<Integer> compileCores) {
+        this.compileCores = compileCores;
+    }
+
+    public List<Integer> getAssignedCores() {
+        return assignedCores;
+    }
+
+    public void setAssignedCores(List<Integer> assignedCores) {
+        this.assignedCores = assignedCores;
+    }
+
+    public CompileStats getCompileStats() {
+        return compileStats;
+    }
+
+    public void setCompileStats(CompileStats compileStats) {
+        this.compileStats = compileStats;
+    }
+
+    public JudgeVerdict getVerdict() {
+        return verdict;
+    }
+
+    public void setVerdict(JudgeVerdict verdict) {
+        this.verdict = verdict;
+    }
 }
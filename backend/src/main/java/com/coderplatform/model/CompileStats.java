@@ -0,0 +1,45 @@
+package com.coderplatform.model;
+
+/**
+ * How much of an incremental build was served from the compile cache. The saved time is
+ * what the reused units took to compile when they were first built.
+ */
+public class CompileStats {
+
+    private int compiledUnits;
+    private int cachedUnits;
+    private long savedTime;     // in milliseconds
+
+    public CompileStats() {
+    }
+
+    public CompileStats(int compiledUnits, int cachedUnits, long savedTime) {
+        this.compiledUnits = compiledUnits;
+        this.cachedUnits = cachedUnits;
+        this.savedTime = savedTime;
+    }
+
+    public int getCompiledUnits() {
+        return compiledUnits;
+    }
+
+    public void setCompiledUnits(int compiledUnits) {
+        this.compiledUnits = compiledUnits;
+    }
+
+    public int getCachedUnits() {
+        return cachedUnits;
+    }
+
+    public void setCachedUnits(int cachedUnits) {
+        this.cachedUnits = cachedUnits;
+    }
+
+    public long getSavedTime() {
+        return savedTime;
+    }
+
+    public void setSavedTime(long savedTime) {
+        this.savedTime = savedTime;
+    }
+}
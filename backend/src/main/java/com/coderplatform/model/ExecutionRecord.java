@@ -0,0 +1,128 @@
+package com.coderplatform.model;
+
+/**
+ * One execution as read back from the journal. Times are in milliseconds, sizes in characters.
+ */
+public class ExecutionRecord {
+
+    private long timestamp;
+    private String language;
+    private CodeExecutionResponse.Status status;
+    private String codeHash;
+    private int codeSize;
+    private int stdinSize;
+    private int outputSize;
+    private int errorSize;
+    private int setupTime;
+    private int compileTime;
+    private int runTime;
+    private int cleanupTime;
+    private int totalTime;
+
+    public ExecutionRecord() {
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    public CodeExecutionResponse.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(CodeExecutionResponse.Status status) {
+        this.status = status;
+    }
+
+    public String getCodeHash() {
+        return codeHash;
+    }
+
+    public void setCodeHash(String codeHash) {
+        this.codeHash = codeHash;
+    }
+
+    public int getCodeSize() {
+        return codeSize;
+    }
+
+    public void setCodeSize(int codeSize) {
+        this.codeSize = codeSize;
+    }
+
+    public int getStdinSize() {
+        return stdinSize;
+    }
+
+    public void setStdinSize(int stdinSize) {
+        this.stdinSize = stdinSize;
+    }
+
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    public void setOutputSize(int outputSize) {
+        this.outputSize = outputSize;
+    }
+
+    public int getErrorSize() {
+        return errorSize;
+    }
+
+    public void setErrorSize(int errorSize) {
+        this.errorSize = errorSize;
+    }
+
+    public int getSetupTime() {
+        return setupTime;
+    }
+
+    public void setSetupTime(int setupTime) {
+        this.setupTime = setupTime;
+    }
+
+    public int getCompileTime() {
+        return compileTime;
+    }
+
+    public void setCompileTime(int compileTime) {
+        this.compileTime = compileTime;
+    }
+
+    public int getRunTime() {
+        return runTime;
+    }
+
+    public void setRunTime(int runTime) {
+        this.runTime = runTime;
+    }
+
+    public int getCleanupTime() {
+        return cleanupTime;
+    }
+
+    public void setCleanupTime(int cleanupTime) {
+        this.cleanupTime = cleanupTime;
+    }
+
+    public int getTotalTime() {
+        return totalTime;
+    }
+
+    public void setTotalTime(int totalTime) {
+        this.totalTime = totalTime;
+    }
+}
@@ -0,0 +1,95 @@
+package com.coderplatform.model;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregates over the journaled executions since a point in time.
+ */
+public class ExecutionSummary {
+
+    private long since;
+    private long count;
+    private Map<String, Long> byLanguage = new TreeMap<>();
+    private Map<String, Long> byStatus = new TreeMap<>();
+    private double averageCompileTime;
+    private double averageRunTime;
+    private long p50TotalTime;
+    private long p95TotalTime;
+    private long droppedRecords;
+
+    public ExecutionSummary() {
+    }
+
+    public long getSince() {
+        return since;
+    }
+
+    public void setSince(long since) {
+        this.since = since;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public Map<String, Long> getByLanguage() {
+        return byLanguage;
+    }
+
+    public void setByLanguage(Map<String, Long> byLanguage) {
+        this.byLanguage = byLanguage;
+    }
+
+    public Map<String, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public void setByStatus(Map<String, Long> byStatus) {
+        this.byStatus = byStatus;
+    }
+
+    public double getAverageCompileTime() {
+        return averageCompileTime;
+    }
+
+    public void setAverageCompileTime(double averageCompileTime) {
+        this.averageCompileTime = averageCompileTime;
+    }
+
+    public double getAverageRunTime() {
+        return averageRunTime;
+    }
+
+    public void setAverageRunTime(double averageRunTime) {
+        this.averageRunTime = averageRunTime;
+    }
+
+    public long getP50TotalTime() {
+        return p50TotalTime;
+    }
+
+    public void setP50TotalTime(long p50TotalTime) {
+        this.p50TotalTime = p50TotalTime;
+    }
+
+    public long getP95TotalTime() {
+        return p95TotalTime;
+    }
+
+    public void setP95TotalTime(long p95TotalTime) {
+        this.p95TotalTime = p95TotalTime;
+    }
+
+    public long getDroppedRecords() {
+        return droppedRecords;
+    }
+
+    public void setDroppedRecords(long droppedRecords) {
+        this.droppedRecords = droppedRecords;
+    }
+}
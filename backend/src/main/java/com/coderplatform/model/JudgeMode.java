@@ -0,0 +1,10 @@
+package com.coderplatform.model;
+
+/**
+ * How actual output is compared against the expected output of a judged request.
+ */
+public enum JudgeMode {
+    EXACT,          // character for character; a single trailing newline is optional
+    WHITESPACE,     // same tokens, however they are separated
+    FLOAT           // same tokens, numbers equal within the tolerance
+}
@@ -0,0 +1,104 @@
+package com.coderplatform.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of comparing a run's output against the expected output. For a wrong answer the
+ * position is where the first difference starts in the actual output (1-based), with short
+ * excerpts of both sides from that point.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JudgeVerdict {
+
+    public enum Result {
+        ACCEPTED,
+        WRONG_ANSWER,
+        OUTPUT_LIMIT_EXCEEDED
+    }
+
+    private Result result;
+    private String message;
+    private Long line;
+    private Long column;
+    private String expected;
+    private String actual;
+
+    public JudgeVerdict() {
+    }
+
+    public JudgeVerdict(Result result, String message, Long line, Long column, String expected, String actual) {
+        this.result = result;
+        this.message = message;
+        this.line = line;
+        this.column = column;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    public static JudgeVerdict accepted() {
+        return new JudgeVerdict(Result.ACCEPTED, null, null, null, null, null);
+    }
+
+    public static JudgeVerdict wrongAnswer(String message, long line, long column, String expected, String actual) {
+        return new JudgeVerdict(Result.WRONG_ANSWER, message, line, column, expected, actual);
+    }
+
+    public static JudgeVerdict outputLimitExceeded(long limit, long line, long column) {
+        return new JudgeVerdict(Result.OUTPUT_LIMIT_EXCEEDED, "Output exceeded " + limit + " characters",
+                line, column, null, null);
+    }
+
+    @JsonIgnore
+    public boolean isAccepted() {
+        return result == Result.ACCEPTED;
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    public void setResult(Result result) {
+        this.result = result;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Long getLine() {
+        return line;
+    }
+
+    public void setLine(Long line) {
+        this.line = line;
+    }
+
+    public Long getColumn() {
+        return column;
+    }
+
+    public void setColumn(Long column) {
+        this.column = column;
+    }
+
+    public String getExpected() {
+        return expected;
+    }
+
+    public void setExpected(String expected) {
+        this.expected = expected;
+    }
+
+    public String getActual() {
+        return actual;
+    }
+
+    public void setActual(String actual) {
+        this.actual = actual;
+    }
+}
@@ -0,0 +1,45 @@
+package com.coderplatform.model;
+
+/**
+ * One entry of the debug phase timeline. Offsets are relative to the start of the request,
+ * in microseconds; nested phases (e.g. "run.wait") overlap their parent ("run").
+ */
+public class PhaseTiming {
+
+    private String phase;
+    private long startMicros;
+    private long durationMicros;
+
+    public PhaseTiming() {
+    }
+
+    public PhaseTiming(String phase, long startMicros, long durationMicros) {
+        this.phase = phase;
+        this.startMicros = startMicros;
+        this.durationMicros = durationMicros;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public void setPhase(String phase) {
+        this.phase = phase;
+    }
+
+    public long getStartMicros() {
+        return startMicros;
+    }
+
+    public void setStartMicros(long startMicros) {
+        this.startMicros = startMicros;
+    }
+
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    public void setDurationMicros(long durationMicros) {
+        this.durationMicros = durationMicros;
+    }
+}
@@ -0,0 +1,86 @@
+package com.coderplatform.model;
+
+/**
+ * Load on one execution pipeline stage. Utilization and queue time cover the last minute, so a
+ * stage that stays near 1.0 with a growing queue needs more threads.
+ */
+public class PipelineStageStats {
+
+    private String stage;
+    private int threads;
+    private int active;
+    private int queued;
+    private long completed;
+    private double utilization;         // busy thread time / available thread time, 0 to 1
+    private double averageQueueTime;    // in milliseconds
+
+    public PipelineStageStats() {
+    }
+
+    public PipelineStageStats(String stage, int threads, int active, int queued, long completed,
+                              double utilization, double averageQueueTime) {
+        this.stage = stage;
+        this.threads = threads;
+        this.active = active;
+        this.queued = queued;
+        this.completed = completed;
+        this.utilization = utilization;
+        this.averageQueueTime = averageQueueTime;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public void setActive(int active) {
+        this.active = active;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+
+    public double getUtilization() {
+        return utilization;
+    }
+
+    public void setUtilization(double utilization) {
+        this.utilization = utilization;
+    }
+
+    public double getAverageQueueTime() {
+        return averageQueueTime;
+    }
+
+    public void setAverageQueueTime(double averageQueueTime) {
+        this.averageQueueTime = averageQueueTime;
+    }
+}
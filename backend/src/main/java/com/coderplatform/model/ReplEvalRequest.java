@@ -0,0 +1,24 @@
+package com.coderplatform.model;
+
+import jakarta.validation.constraints.NotNull;
+
+public class ReplEvalRequest {
+
+    @NotNull(message = "Code is required")
+    private String code;
+
+    public ReplEvalRequest() {
+    }
+
+    public ReplEvalRequest(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+}
@@ -0,0 +1,76 @@
+package com.coderplatform.model;
+
+/**
+ * Result of one snippet evaluated in a REPL session. Once {@code sessionClosed} is set the
+ * session is gone (it exited, timed out or crashed) and its state is lost.
+ */
+public class ReplEvalResponse {
+
+    private String output;
+    private String error;
+    private String result;      // printed value of a trailing expression, if any
+    private long executionTime;
+    private CodeExecutionResponse.Status status;
+    private boolean sessionClosed;
+
+    public ReplEvalResponse() {
+    }
+
+    public ReplEvalResponse(String output, String error, String result, long executionTime,
+                            CodeExecutionResponse.Status status, boolean sessionClosed) {
+        this.output = output;
+        this.error = error;
+        this.result = result;
+        this.executionTime = executionTime;
+        this.status = status;
+        this.sessionClosed = sessionClosed;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public void setOutput(String output) {
+        this.output = output;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public long getExecutionTime() {
+        return executionTime;
+    }
+
+    public void setExecutionTime(long executionTime) {
+        this.executionTime = executionTime;
+    }
+
+    public CodeExecutionResponse.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(CodeExecutionResponse.Status status) {
+        this.status = status;
+    }
+
+    public boolean isSessionClosed() {
+        return sessionClosed;
+    }
+
+    public void setSessionClosed(boolean sessionClosed) {
+        this.sessionClosed = sessionClosed;
+    }
+}
@@ -0,0 +1,41 @@
+package com.coderplatform.model;
+
+public class ReplSessionInfo {
+
+    private String id;
+    private String language;
+    private long idleTimeout;  // ms without an eval before the session is closed
+
+    public ReplSessionInfo() {
+    }
+
+    public ReplSessionInfo(String id, String language, long idleTimeout) {
+        this.id = id;
+        this.language = language;
+        this.idleTimeout = idleTimeout;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+}
@@ -0,0 +1,24 @@
+package com.coderplatform.model;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class ReplSessionRequest {
+
+    @NotBlank(message = "Language is required")
+    private String language;
+
+    public ReplSessionRequest() {
+    }
+
+    public ReplSessionRequest(String language) {
+        this.language = language;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+}
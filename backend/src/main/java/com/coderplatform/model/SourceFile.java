@@ -0,0 +1,41 @@
+package com.coderplatform.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One file of a multi-file submission. The name is a relative path such as
+ * {@code util/math.c}; it decides where the file is written in the work dir.
+ */
+public class SourceFile {
+
+    @NotBlank(message = "File name is required")
+    private String name;
+
+    @NotNull(message = "File content is required")
+    private String content;
+
+    public SourceFile() {
+    }
+
+    public SourceFile(String name, String content) {
+        this.name = name;
+        this.content = content;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+}
@@ -0,0 +1,154 @@
+package com.coderplatform.service;
+
+import com.coderplatform.config.ExecutionConfig;
+import com.coderplatform.model.BatchExecutionResult;
+import com.coderplatform.model.CodeExecutionRequest;
+import com.coderplatform.model.CodeExecutionResponse;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@Service
+public class BatchExecutionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchExecutionService.class);
+
+    private final ExecutionConfig config;
+    private final CodeExecutionService executionService;
+    private final Validator validator;
+    private final ExecutorService workers;
+
+    public BatchExecutionService(ExecutionConfig config, CodeExecutionService executionService, Validator validator) {
+        this.config = config;
+        this.executionService = executionService;
+        this.validator = validator;
+
+        // Shared by every batch so the node-wide limit holds no matter how many batches are open
+        int parallelism = Math.max(config.getBatchParallelism(), 1);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "batch-worker-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Executes requests pulled from the iterator and hands each result to the sink as soon as it
+     * completes. At most two windows of requests are held at any time, so arbitrarily large batches
+     * can be streamed through. Within a window requests are ordered by language, which keeps
+     * submissions for the same toolchain adjacent in the worker queue.
+     */
+    public int executeBatch(Iterator<CodeExecutionRequest> requests, Long deadlineMs,
+                            Consumer<BatchExecutionResult> sink) {
+        // One deadline for the whole batch, counted from when the batch arrived
+        long deadlineNanos = deadlineMs == null ? 0 : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        int windowSize = Math.max(config.getBatchWindowSize(), 1);
+        CompletionService<BatchExecutionResult> completions = new ExecutorCompletionService<>(workers);
+        Set<Future<BatchExecutionResult>> pending = new HashSet<>();
+        List<IndexedRequest> window = new ArrayList<>(windowSize);
+        int index = 0;
+
+        try {
+            while (requests.hasNext()) {
+                window.add(new IndexedRequest(index++, requests.next()));
+                if (window.size() == windowSize) {
+                    submitWindow(window, deadlineMs == null ? null : remainingMs(deadlineNanos), completions, pending);
+                    window.clear();
+                    // Stop reading ahead until the backlog drops back to one window
+                    while (pending.size() > windowSize) {
+                        emit(completions.take(), pending, sink);
+                    }
+                }
+                Future<BatchExecutionResult> done;
+                while ((done = completions.poll()) != null) {
+                    emit(done, pending, sink);
+                }
+            }
+            submitWindow(window, deadlineMs == null ? null : remainingMs(deadlineNanos), completions, pending);
+            while (!pending.isEmpty()) {
+                emit(completions.take(), pending, sink);
+            }
+            return index;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch execution interrupted", e);
+        } finally {
+            if (!pending.isEmpty()) {
+                logger.warn("Batch aborted with {} executions still pending", pending.size());
+                pending.forEach(f -> f.cancel(true));
+            }
+        }
+    }
+
+    private static long remainingMs(long deadlineNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    private void submitWindow(List<IndexedRequest> window, Long deadlineMs,
+                              CompletionService<BatchExecutionResult> completions,
+                              Set<Future<BatchExecutionResult>> pending) {
+        window.sort(Comparator.comparing(r -> String.valueOf(r.request.getLanguage()).toLowerCase()));
+        for (IndexedRequest item : window) {
+            ExecutionTrace trace = new ExecutionTrace(new ExecutionHandle(UUID.randomUUID().toString(), deadlineMs));
+            if (item.request.isDebug()) {
+                trace.enableTimeline();
+            }
+            ExecutionTrace.Phase queued = trace.phase("queue");
+            pending.add(completions.submit(() -> {
+                queued.close();
+                return executeOne(item, trace);
+            }));
+        }
+    }
+
+    private BatchExecutionResult executeOne(IndexedRequest item, ExecutionTrace trace) {
+        CodeExecutionRequest request = item.request;
+        Set<ConstraintViolation<CodeExecutionRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return new BatchExecutionResult(item.index, request.getLanguage(),
+                    CodeExecutionResponse.error(violations.iterator().next().getMessage()));
+        }
+        try {
+            return new BatchExecutionResult(item.index, request.getLanguage(), executionService.execute(request, trace));
+        } catch (Exception e) {
+            logger.error("Batch item {} failed", item.index, e);
+            return new BatchExecutionResult(item.index, request.getLanguage(),
+                    CodeExecutionResponse.error("Execution failed: " + e.getMessage()));
+        }
+    }
+
+    private void emit(Future<BatchExecutionResult> done, Set<Future<BatchExecutionResult>> pending,
+                      Consumer<BatchExecutionResult> sink) throws InterruptedException {
+        pending.remove(done);
+        try {
+            sink.accept(done.get());
+        } catch (ExecutionException e) {
+            // executeOne never throws, so this only happens on an unexpected Error
+            logger.error("Batch item failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private static class IndexedRequest {
+        final int index;
+        final CodeExecutionRequest request;
+
+        IndexedRequest(int index, CodeExecutionRequest request) {
+            this.index = index;
+            this.request = request;
+        }
+    }
+}
@@ -3,116 +3,478 @@ package com.coderplatform.service;
 import com.coderplatform.config.ExecutionConfig;
 import com.coderplatform.model.CodeExecutionRequest;
 import com.coderplatform.model.CodeExecutionResponse;
+import com.coderplatform.model.JudgeVerdict;
 import com.coderplatform.model.Language;
 import com.coderplatform.model.LanguageInfo;
+import com.coderplatform.model.PhaseTiming;
+import com.coderplatform.model.SourceFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 @Service
 public class CodeExecutionService {
 
     private static final Logger logger = LoggerFactory.getLogger(CodeExecutionService.class);
 
+    // Readers normally finish right after the process; a longer wait only follows killing the tree
+    private static final long READER_JOIN_MS = 500;
+    private static final long READER_DRAIN_MS = 500;
+    // Relative paths only; dot-prefixed segments are reserved for the executor's own files
+    private static final Pattern SOURCE_PATH = Pattern.compile("[\\w-][\\w.-]*(/[\\w-][\\w.-]*)*");
+
     private final ExecutionConfig config;
     private final LanguageExecutor languageExecutor;
-
-    public CodeExecutionService(ExecutionConfig config, LanguageExecutor languageExecutor) {
+    private final ZygoteManager zygoteManager;
+    private final ExecutionJournal journal;
+    private final CoreAllocator coreAllocator;
+    private final IncrementalCompiler incrementalCompiler;
+    private final ExecutionPipeline pipeline;
+
+    public CodeExecutionService(ExecutionConfig config, LanguageExecutor languageExecutor,
+                                ZygoteManager zygoteManager, ExecutionJournal journal,
+                                CoreAllocator coreAllocator, IncrementalCompiler incrementalCompiler,
+                                ExecutionPipeline pipeline) {
         this.config = config;
         this.languageExecutor = languageExecutor;
+        this.zygoteManager = zygoteManager;
+        this.journal = journal;
+        this.coreAllocator = coreAllocator;
+        this.incrementalCompiler = incrementalCompiler;
+        this.pipeline = pipeline;
     }
 
     public CodeExecutionResponse execute(CodeExecutionRequest request) {
-        long startTime = System.currentTimeMillis();
-        Path workDir = null;
+        return execute(request, new ExecutionHandle(UUID.randomUUID().toString(), null));
+    }
+
+    /**
+     * Executes under the given handle, which can cancel the submission from another thread and
+     * caps every stage at the handle's deadline.
+     */
+    public CodeExecutionResponse execute(CodeExecutionRequest request, ExecutionHandle handle) {
+        return execute(request, new ExecutionTrace(handle));
+    }
+
+    /**
+     * Executes with a trace created by the caller, so time spent before this call (e.g. in a
+     * batch queue) can be recorded as phases of the same request.
+     */
+    CodeExecutionResponse execute(CodeExecutionRequest request, ExecutionTrace trace) {
+        if (request.isDebug()) {
+            trace.enableTimeline();
+        }
+        ExecutionEvent event = new ExecutionEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
+
+        Submission submission = new Submission(request, trace);
+        CodeExecutionResponse response = doExecute(submission);
+
+        long totalTimeMs = (System.nanoTime() - startNanos) / 1_000_000;
+        event.end();
+        if (event.shouldCommit()) {
+            event.requestId = trace.getRequestId();
+            event.language = request.getLanguage();
+            event.status = String.valueOf(response.getStatus());
+            event.codeSize = request.getCode() == null ? 0 : request.getCode().length();
+            event.commit();
+        }
+        response.setCompileCores(trace.getCompileCores());
+        response.setAssignedCores(trace.getRunCores());
+        response.setCompileStats(trace.getCompileStats());
+        response.setVerdict(trace.getVerdict());
+        if (trace.getTimeline() != null) {
+            trace.getTimeline().sort(Comparator.comparingLong(PhaseTiming::getStartMicros));
+            // A copy, since the finalize stage still adds to the trace
+            response.setTimeline(new ArrayList<>(trace.getTimeline()));
+        }
+
+        // Cleanup and the journal record happen after the response is on its way
+        pipeline.submit(ExecutionPipeline.Stage.FINALIZE, () -> finalizeSubmission(submission, response, totalTimeMs));
+        return response;
+    }
 
+    /**
+     * Passes the submission through the prepare, compile and run stages, each on its own pool.
+     * A stage returns a response to end the submission early, or null to hand it on.
+     */
+    private CodeExecutionResponse doExecute(Submission submission) {
+        ExecutionTrace trace = submission.trace;
         try {
-            Language language = Language.fromId(request.getLanguage());
-            
-            // Create temporary working directory
+            CodeExecutionResponse response = pipeline.call(ExecutionPipeline.Stage.PREPARE, trace,
+                    () -> prepare(submission));
+            if (response == null && needsCompile(submission.language)) {
+                response = pipeline.call(ExecutionPipeline.Stage.COMPILE, trace, () -> compile(submission));
+            }
+            if (response == null) {
+                response = pipeline.call(ExecutionPipeline.Stage.RUN, trace, () -> run(submission));
+            }
+            return response;
+        } catch (CancellationException e) {
+            // Dropped while waiting for a stage thread
+            CodeExecutionResponse abandoned = checkAbandoned(trace.getHandle(), "", submission.compileTimeMs);
+            return abandoned != null ? abandoned : CodeExecutionResponse.cancelled("", submission.compileTimeMs);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid language: {}", e.getMessage());
+            return CodeExecutionResponse.error("Unsupported language: " + submission.request.getLanguage());
+        } catch (Exception e) {
+            logger.error("Execution error", e);
+            return CodeExecutionResponse.error("Execution failed: " + e.getMessage());
+        }
+    }
+
+    private boolean needsCompile(Language language) {
+        return incrementalCompiler.supports(language) || language.isRequiresCompilation();
+    }
+
+    /**
+     * Prepare stage: resolves the language and writes the sources into a fresh work dir.
+     */
+    @SuppressWarnings("try")
+    private CodeExecutionResponse prepare(Submission submission) throws IOException {
+        long setupStartTime = System.nanoTime();
+        CodeExecutionRequest request = submission.request;
+        ExecutionTrace trace = submission.trace;
+
+        Language language = Language.fromId(request.getLanguage());
+        submission.language = language;
+        trace.setLanguage(language);
+
+        // Dropped while queued, or the client's deadline already passed
+        CodeExecutionResponse abandoned = checkAbandoned(trace.getHandle(), "", 0);
+        if (abandoned != null) {
+            return abandoned;
+        }
+
+        // Create temporary working directory
+        Path workDir;
+        try (ExecutionTrace.Phase phase = trace.phase("tempdir")) {
             workDir = Files.createTempDirectory("coder-");
-            File workDirFile = workDir.toFile();
-            
-            logger.info("Executing {} code in {}", language, workDir);
+        }
+        submission.workDir = workDir;
+
+        logger.info("Executing {} code in {}", language, workDir);
 
-            // Write source code to file
+        // Write source files; a single-file submission is a project of one file
+        Map<String, String> sources = new LinkedHashMap<>();
+        if (request.hasFiles()) {
+            for (SourceFile file : request.getFiles()) {
+                if (!SOURCE_PATH.matcher(file.getName()).matches()) {
+                    return CodeExecutionResponse.error("Invalid file name: " + file.getName());
+                }
+                sources.put(file.getName(), file.getContent());
+            }
+        } else {
             String fileName = languageExecutor.getDefaultFileName(language);
-            
+
             // For Java, extract class name from code
             if (language == Language.JAVA) {
                 fileName = extractJavaClassName(request.getCode()) + ".java";
             }
-            
-            File sourceFile = new File(workDirFile, fileName);
-            Files.writeString(sourceFile.toPath(), request.getCode());
-
-            long compileTimeMs = 0;
-            
-            // Compile if necessary
-            if (language.isRequiresCompilation()) {
-                List<String> compileCmd = languageExecutor.getCompileCommand(language, sourceFile, workDirFile);
-                if (!compileCmd.isEmpty()) {
-                    ProcessResult compileResult = runProcess(compileCmd, workDirFile, null, config.getTimeout());
-                    compileTimeMs = compileResult.executionTimeMs;
-                    
-                    if (compileResult.exitCode != 0) {
-                        return CodeExecutionResponse.compileError(compileResult.stderr, compileTimeMs);
+            sources.put(fileName, request.getCode());
+        }
+        submission.sources = sources;
+
+        String entryFile = selectEntryFile(language, sources);
+        if (entryFile == null) {
+            return CodeExecutionResponse.error("No " + language.getDisplayName() + " source file ("
+                    + language.getExtension() + ") to run in the project");
+        }
+        if (!languageExecutor.supportsProject(language, sources.keySet())) {
+            return CodeExecutionResponse.error(language.getDisplayName()
+                    + " projects must have a single " + language.getExtension() + " file");
+        }
+        submission.sourceFile = new File(workDir.toFile(), entryFile);
+        try (ExecutionTrace.Phase phase = trace.phase("write-source")) {
+            for (Map.Entry<String, String> source : sources.entrySet()) {
+                Path path = workDir.resolve(source.getKey());
+                Files.createDirectories(path.getParent());
+                Files.writeString(path, source.getValue());
+            }
+        }
+        trace.setSetupTimeMs((System.nanoTime() - setupStartTime) / 1_000_000);
+        return null;
+    }
+
+    /**
+     * Compile stage, reusing cached objects and classes of unchanged files where supported.
+     */
+    private CodeExecutionResponse compile(Submission submission) throws IOException, InterruptedException {
+        Language language = submission.language;
+        ExecutionTrace trace = submission.trace;
+        ExecutionHandle handle = trace.getHandle();
+        File workDirFile = submission.workDir.toFile();
+        File sourceFile = submission.sourceFile;
+
+        CodeExecutionResponse abandoned = checkAbandoned(handle, "", 0);
+        if (abandoned != null) {
+            return abandoned;
+        }
+
+        // Waiting for cores counts against the compile's time budget
+        long budgetMs = handle.timeoutMs(config.getTimeout());
+        long stageStart = System.nanoTime();
+
+        if (incrementalCompiler.supports(language)) {
+            IncrementalCompiler.BuildResult build;
+            try (ExecutionTrace.Phase phase = trace.phase("compile");
+                 CoreAllocator.CoreLease lease = acquireCores(CoreAllocator.Stage.COMPILE, trace, budgetMs)) {
+                if (coreAllocator.isEnabled() && lease == null) {
+                    return noCores(handle, "Compilation timed out", phase.elapsedMs());
+                }
+                if (lease != null) {
+                    trace.setCompileCores(lease.getCpus());
+                }
+                build = incrementalCompiler.build(language, submission.sources, sourceFile, workDirFile,
+                        remainingMs(budgetMs, stageStart),
+                        (command, stage, timeoutMs) -> runProcess(coreAllocator.pin(command, lease), workDirFile,
+                                null, timeoutMs, trace, stage, null));
+            }
+            long compileTimeMs = build.compileTimeMs;
+            submission.compileTimeMs = compileTimeMs;
+            trace.setCompileTimeMs(compileTimeMs);
+            trace.setCompileStats(build.stats);
+
+            abandoned = checkAbandoned(handle, "", compileTimeMs);
+            if (abandoned != null) {
+                return abandoned;
+            }
+
+            if (build.failure != null && build.failure.timedOut) {
+                return CodeExecutionResponse.timeout("Compilation timed out", compileTimeMs);
+            }
+
+            if (build.failure != null) {
+                return CodeExecutionResponse.compileError(build.failure.stderr, compileTimeMs);
+            }
+        } else {
+            List<String> compileCmd = languageExecutor.getCompileCommand(language, sourceFile, workDirFile,
+                    submission.sources.keySet());
+            if (!compileCmd.isEmpty()) {
+                ProcessResult compileResult;
+                try (ExecutionTrace.Phase phase = trace.phase("compile");
+                     CoreAllocator.CoreLease lease = acquireCores(CoreAllocator.Stage.COMPILE, trace, budgetMs)) {
+                    if (coreAllocator.isEnabled() && lease == null) {
+                        return noCores(handle, "Compilation timed out", phase.elapsedMs());
                     }
-                    
-                    if (compileResult.timedOut) {
-                        return CodeExecutionResponse.timeout("Compilation timed out", compileTimeMs);
+                    if (lease != null) {
+                        trace.setCompileCores(lease.getCpus());
                     }
+                    compileResult = runProcess(coreAllocator.pin(compileCmd, lease), workDirFile, null,
+                            remainingMs(budgetMs, stageStart), trace, "compile", null);
+                }
+                long compileTimeMs = compileResult.executionTimeMs;
+                submission.compileTimeMs = compileTimeMs;
+                trace.setCompileTimeMs(compileTimeMs);
+
+                abandoned = checkAbandoned(handle, "", compileTimeMs);
+                if (abandoned != null) {
+                    return abandoned;
+                }
+
+                if (compileResult.exitCode != 0) {
+                    return CodeExecutionResponse.compileError(compileResult.stderr, compileTimeMs);
+                }
+
+                if (compileResult.timedOut) {
+                    return CodeExecutionResponse.timeout("Compilation timed out", compileTimeMs);
                 }
             }
+        }
+        return null;
+    }
 
-            // Run the code
-            List<String> runCmd = languageExecutor.getRunCommand(language, sourceFile, workDirFile, config.getMemoryLimit());
-            ProcessResult runResult = runProcess(runCmd, workDirFile, request.getStdin(), config.getTimeout());
-            
-            // Use actual process execution time (not wall clock including thread overhead)
-            long executionTime = runResult.executionTimeMs;
+    /**
+     * Run stage: runs the program and turns its outcome into the response.
+     */
+    @SuppressWarnings("try")
+    private CodeExecutionResponse run(Submission submission) throws IOException, InterruptedException {
+        CodeExecutionRequest request = submission.request;
+        Language language = submission.language;
+        ExecutionTrace trace = submission.trace;
+        ExecutionHandle handle = trace.getHandle();
+        File workDirFile = submission.workDir.toFile();
+        File sourceFile = submission.sourceFile;
+
+        CodeExecutionResponse abandoned = checkAbandoned(handle, "", submission.compileTimeMs);
+        if (abandoned != null) {
+            return abandoned;
+        }
 
-            if (runResult.timedOut) {
-                return CodeExecutionResponse.timeout(truncateOutput(runResult.stdout), executionTime);
+        // Waiting for cores counts against the run's time budget
+        long budgetMs = handle.timeoutMs(config.getTimeout());
+        long stageStart = System.nanoTime();
+
+        // Run the code, forking from a warm interpreter when zygote mode is on for this language
+        ProcessResult runResult = null;
+        OutputJudge judge = OutputJudge.forRequest(request, config.getMaxOutputSize());
+        try (ExecutionTrace.Phase phase = trace.phase("run");
+             CoreAllocator.CoreLease lease = acquireCores(CoreAllocator.Stage.RUN, trace, budgetMs)) {
+            if (coreAllocator.isEnabled() && lease == null) {
+                return noCores(handle, "", phase.elapsedMs());
+            }
+            if (lease != null) {
+                trace.setRunCores(lease.getCpus());
             }
+            if (zygoteManager.isEnabled(language)) {
+                long forkStartTime = System.nanoTime();
+                Process child;
+                try (ExecutionTrace.Phase spawn = trace.phase("run.spawn")) {
+                    child = zygoteManager.spawn(language, sourceFile, workDirFile,
+                            lease == null ? null : lease.getCpus(), handle);
+                }
+                if (child != null) {
+                    runResult = awaitProcess(child, request.getStdin(), remainingMs(budgetMs, stageStart),
+                            forkStartTime, trace, "run", judge);
+                }
+            }
+            if (runResult == null) {
+                List<String> runCmd = languageExecutor.getRunCommand(language, sourceFile, workDirFile,
+                        submission.sources.keySet(), config.getMemoryLimit());
+                runResult = runProcess(coreAllocator.pin(runCmd, lease), workDirFile, request.getStdin(),
+                        remainingMs(budgetMs, stageStart), trace, "run", judge);
+            }
+        }
+
+        // Use actual process execution time (not wall clock including thread overhead)
+        long executionTime = runResult.executionTimeMs;
+        trace.setRunTimeMs(executionTime);
+
+        // A judge that stopped the run has a verdict regardless of how the process exited
+        boolean stoppedByJudge = judge != null && judge.isMismatched();
+
+        if (handle.isCancelled()) {
+            return CodeExecutionResponse.cancelled(truncateOutput(runResult.stdout), executionTime);
+        }
+
+        if (runResult.timedOut) {
+            return CodeExecutionResponse.timeout(truncateOutput(runResult.stdout), executionTime);
+        }
+
+        if (runResult.memoryExceeded) {
+            return CodeExecutionResponse.memoryExceeded(truncateOutput(runResult.stdout), executionTime);
+        }
 
-            if (runResult.memoryExceeded) {
-                return CodeExecutionResponse.memoryExceeded(truncateOutput(runResult.stdout), executionTime);
+        if (stoppedByJudge) {
+            JudgeVerdict verdict = judge.verdict();
+            trace.setVerdict(verdict);
+            if (verdict.getResult() == JudgeVerdict.Result.OUTPUT_LIMIT_EXCEEDED) {
+                return CodeExecutionResponse.outputLimitExceeded(runResult.stdout, executionTime);
             }
+            return CodeExecutionResponse.wrongAnswer(runResult.stdout, executionTime);
+        }
 
-            if (runResult.exitCode != 0) {
-                return CodeExecutionResponse.runtimeError(
-                    truncateOutput(runResult.stdout), 
-                    runResult.stderr, 
-                    executionTime
-                );
+        if (runResult.exitCode != 0) {
+            return CodeExecutionResponse.runtimeError(
+                truncateOutput(runResult.stdout), 
+                runResult.stderr, 
+                executionTime
+            );
+        }
+
+        if (judge != null) {
+            JudgeVerdict verdict = judge.verdict();
+            trace.setVerdict(verdict);
+            if (!verdict.isAccepted()) {
+                return CodeExecutionResponse.wrongAnswer(runResult.stdout, executionTime);
             }
+        }
 
-            return CodeExecutionResponse.success(truncateOutput(runResult.stdout), executionTime);
+        return CodeExecutionResponse.success(truncateOutput(runResult.stdout), executionTime);
+    }
 
-        } catch (IllegalArgumentException e) {
-            logger.error("Invalid language: {}", e.getMessage());
-            return CodeExecutionResponse.error("Unsupported language: " + request.getLanguage());
-        } catch (Exception e) {
-            logger.error("Execution error", e);
-            long executionTime = System.currentTimeMillis() - startTime;
-            return CodeExecutionResponse.error("Execution failed: " + e.getMessage());
-        } finally {
-            // Cleanup
-            if (workDir != null) {
-                try {
-                    deleteDirectory(workDir.toFile());
-                } catch (Exception e) {
-                    logger.warn("Failed to cleanup work directory: {}", workDir, e);
+    /**
+     * Finalize stage: removes the work dir and journals the submission.
+     */
+    private void finalizeSubmission(Submission submission, CodeExecutionResponse response, long totalTimeMs) {
+        ExecutionTrace trace = submission.trace;
+        if (submission.workDir != null) {
+            try (ExecutionTrace.Phase phase = trace.phase("cleanup")) {
+                Directories.delete(submission.workDir.toFile());
+                trace.setCleanupTimeMs(phase.elapsedMs());
+            } catch (Exception e) {
+                logger.warn("Failed to cleanup work directory: {}", submission.workDir, e);
+            }
+        }
+        journal.record(submission.request, response, trace, totalTimeMs);
+    }
+
+    /**
+     * Waits for exclusive cores when CPU affinity is on. The wait shows up in the timeline as
+     * "compile.cores" / "run.cores", since under load it is effectively queueing time.
+     */
+    @SuppressWarnings("try")
+    private CoreAllocator.CoreLease acquireCores(CoreAllocator.Stage stage, ExecutionTrace trace, long timeoutMs)
+            throws InterruptedException {
+        if (!coreAllocator.isEnabled()) {
+            return null;
+        }
+        try (ExecutionTrace.Phase phase = trace.phase(stage.name().toLowerCase() + ".cores")) {
+            return coreAllocator.acquire(stage, trace.getHandle(), timeoutMs);
+        }
+    }
+
+    /**
+     * The stage ran out of time (or was cancelled) waiting for cores. It is not run unpinned,
+     * since that would quietly give up the exclusive cores.
+     */
+    private CodeExecutionResponse noCores(ExecutionHandle handle, String output, long executionTime) {
+        if (handle.isCancelled()) {
+            return CodeExecutionResponse.cancelled(output, executionTime);
+        }
+        return CodeExecutionResponse.timeout(output, executionTime);
+    }
+
+    /**
+     * What is left of a stage's time budget that started at {@code startNanos}.
+     */
+    private static long remainingMs(long budgetMs, long startNanos) {
+        return Math.max(budgetMs - (System.nanoTime() - startNanos) / 1_000_000, 0);
+    }
+
+    private CodeExecutionResponse checkAbandoned(ExecutionHandle handle, String output, long executionTime) {
+        if (handle.isCancelled()) {
+            return CodeExecutionResponse.cancelled(output, executionTime);
+        }
+        if (handle.isExpired()) {
+            return CodeExecutionResponse.timeout(output, executionTime);
+        }
+        return null;
+    }
+
+    /**
+     * Picks the file a multi-file project starts from: the Java class with a main method, the
+     * language's default file name (main.py, main.c, ...) when present, or else the first file
+     * with the language's extension. Returns null when the project has no such file.
+     */
+    private String selectEntryFile(Language language, Map<String, String> sources) {
+        if (language == Language.JAVA) {
+            for (Map.Entry<String, String> source : sources.entrySet()) {
+                if (source.getKey().endsWith(".java") && source.getValue().contains("static void main")) {
+                    return source.getKey();
                 }
             }
         }
+        String defaultName = languageExecutor.getDefaultFileName(language);
+        if (sources.containsKey(defaultName)) {
+            return defaultName;
+        }
+        for (String name : sources.keySet()) {
+            if (languageExecutor.isSourceFile(language, name)) {
+                return name;
+            }
+        }
+        return null;
     }
 
     private String extractJavaClassName(String code) {
@@ -127,7 +489,9 @@ public class CodeExecutionService {
         return "Main";
     }
 
-    private ProcessResult runProcess(List<String> command, File workDir, String stdin, long timeoutMs) 
+    @SuppressWarnings("try")
+    private ProcessResult runProcess(List<String> command, File workDir, String stdin, long timeoutMs,
+                                     ExecutionTrace trace, String stage, OutputJudge judge)
             throws IOException, InterruptedException {
         
         ProcessBuilder pb = new ProcessBuilder(command);
@@ -138,46 +502,86 @@ public class CodeExecutionService {
         Map<String, String> env = pb.environment();
         env.put("LANG", "en_US.UTF-8");
         
+        // Start timing ONLY when process actually starts
+        long processStartTime = System.nanoTime();
+        Process process;
+        try (ExecutionTrace.Phase phase = trace.phase(stage + ".spawn")) {
+            process = pb.start();
+        }
+
+        return awaitProcess(process, stdin, timeoutMs, processStartTime, trace, stage, judge);
+    }
+
+    private ProcessResult awaitProcess(Process process, String stdin, long timeoutMs, long processStartTime,
+                                       ExecutionTrace trace, String stage, OutputJudge judge)
+            throws IOException, InterruptedException {
+
+        // Let a cancel from another thread reach this process, and never leave it running behind us
+        ExecutionHandle handle = trace.getHandle();
+        handle.attach(process);
+        try {
+            return collectProcess(process, stdin, timeoutMs, processStartTime, trace, stage, judge);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            ExecutionHandle.destroyTree(process);
+            throw e;
+        } finally {
+            handle.detach();
+        }
+    }
+
+    @SuppressWarnings("try")
+    private ProcessResult collectProcess(Process process, String stdin, long timeoutMs, long processStartTime,
+                                         ExecutionTrace trace, String stage, OutputJudge judge)
+            throws IOException, InterruptedException {
+
         // Read stdout and stderr using dedicated threads with pre-allocated buffers
         StringBuilder stdout = new StringBuilder(4096);
         StringBuilder stderr = new StringBuilder(4096);
-        
-        // Start timing ONLY when process actually starts
-        long processStartTime = System.nanoTime();
-        Process process = pb.start();
 
         // Write stdin if provided
-        if (stdin != null && !stdin.isEmpty()) {
-            try (OutputStream os = process.getOutputStream()) {
-                os.write(stdin.getBytes());
-                os.flush();
+        try (ExecutionTrace.Phase phase = trace.phase(stage + ".stdin")) {
+            if (stdin != null && !stdin.isEmpty()) {
+                try (OutputStream os = process.getOutputStream()) {
+                    os.write(stdin.getBytes());
+                    os.flush();
+                }
+            } else {
+                process.getOutputStream().close();
             }
-        } else {
-            process.getOutputStream().close();
         }
 
-        Thread stdoutReader = new Thread(() -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()), 8192)) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (stdout.length() < config.getMaxOutputSize()) {
-                        stdout.append(line).append("\n");
+        // A judged run is compared as it prints instead of being buffered
+        Thread stdoutReader;
+        if (judge != null) {
+            stdoutReader = new Thread(() -> judgeOutput(process, judge), "stdout-judge");
+        } else {
+            stdoutReader = new Thread(() -> {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()), 8192)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        synchronized (stdout) {
+                            if (stdout.length() < config.getMaxOutputSize()) {
+                                stdout.append(line).append("\n");
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    // Process may have been killed, ignore
+                    if (!e.getMessage().contains("Stream closed")) {
+                        logger.error("Error reading stdout", e);
                     }
                 }
-            } catch (IOException e) {
-                // Process may have been killed, ignore
-                if (!e.getMessage().contains("Stream closed")) {
-                    logger.error("Error reading stdout", e);
-                }
-            }
-        }, "stdout-reader");
+            }, "stdout-reader");
+        }
 
         Thread stderrReader = new Thread(() -> {
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream()), 8192)) {
                 String line;
                 while ((line = reader.readLine()) != null) {
-                    if (stderr.length() < config.getMaxOutputSize()) {
-                        stderr.append(line).append("\n");
+                    synchronized (stderr) {
+                        if (stderr.length() < config.getMaxOutputSize()) {
+                            stderr.append(line).append("\n");
+                        }
                     }
                 }
             } catch (IOException e) {
@@ -191,29 +595,106 @@ public class CodeExecutionService {
         stdoutReader.start();
         stderrReader.start();
 
-        boolean completed = process.waitFor(timeoutMs, TimeUnit.MILLISECONDS);
+        boolean completed;
+        try (ExecutionTrace.Phase phase = trace.phase(stage + ".wait")) {
+            completed = process.waitFor(timeoutMs, TimeUnit.MILLISECONDS);
+        }
         
         // Measure execution time right after process completes (before thread cleanup)
         long processEndTime = System.nanoTime();
         long actualExecutionTimeMs = (processEndTime - processStartTime) / 1_000_000;
 
         if (!completed) {
-            process.destroyForcibly();
-            stdoutReader.join(500);
-            stderrReader.join(500);
-            return new ProcessResult(-1, stdout.toString(), stderr.toString(), true, false, actualExecutionTimeMs);
+            ExecutionHandle.destroyTree(process);
+            try (ExecutionTrace.Phase phase = trace.phase(stage + ".join")) {
+                finishReaders(process, stdoutReader, stderrReader);
+            }
+            if (judge != null) {
+                judge.seal();
+            }
+            return new ProcessResult(-1, judge != null ? judge.getPreview() : snapshot(stdout), snapshot(stderr),
+                    true, false, actualExecutionTimeMs);
         }
 
         // Wait for reader threads to finish (short timeout since process is done)
-        stdoutReader.join(500);
-        stderrReader.join(500);
+        try (ExecutionTrace.Phase phase = trace.phase(stage + ".join")) {
+            finishReaders(process, stdoutReader, stderrReader);
+        }
+        if (judge != null) {
+            judge.seal();
+        }
 
         int exitCode = process.exitValue();
-        boolean memoryExceeded = stderr.toString().contains("OutOfMemoryError") 
-                              || stderr.toString().contains("Cannot allocate memory")
-                              || stderr.toString().contains("Too small maximum heap");
+        String errors = snapshot(stderr);
+        boolean memoryExceeded = errors.contains("OutOfMemoryError")
+                              || errors.contains("Cannot allocate memory")
+                              || errors.contains("MemoryError")
+                              || errors.contains("Too small maximum heap");
+
+        return new ProcessResult(exitCode, judge != null ? judge.getPreview() : snapshot(stdout), errors,
+                false, memoryExceeded, actualExecutionTimeMs);
+    }
 
-        return new ProcessResult(exitCode, stdout.toString(), stderr.toString(), false, memoryExceeded, actualExecutionTimeMs);
+    /**
+     * Waits for the output readers once the process is gone. A reader still blocked after a short
+     * wait means something else holds the pipe open, such as an orphaned grandchild, so the tree
+     * is killed and the pipes closed before waiting again. Callers seal the judge afterwards, so
+     * a reader that still outlives this cannot change what has been collected.
+     */
+    private void finishReaders(Process process, Thread stdoutReader, Thread stderrReader)
+            throws InterruptedException {
+        if (joinBoth(stdoutReader, stderrReader, READER_JOIN_MS)) {
+            return;
+        }
+        ExecutionHandle.destroyTree(process);
+        closeQuietly(process.getInputStream());
+        closeQuietly(process.getErrorStream());
+        if (!joinBoth(stdoutReader, stderrReader, READER_DRAIN_MS)) {
+            logger.warn("Output readers of process {} still running after the process tree was killed", process.pid());
+        }
+    }
+
+    private static boolean joinBoth(Thread first, Thread second, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        first.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        second.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        return !first.isAlive() && !second.isAlive();
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            // Already closed by its reader
+        }
+    }
+
+    private static String snapshot(StringBuilder output) {
+        synchronized (output) {
+            return output.toString();
+        }
+    }
+
+    /**
+     * Streams stdout through the judge and kills the process tree at the first difference, so a
+     * wrong answer stops using CPU and output budget right there.
+     */
+    private void judgeOutput(Process process, OutputJudge judge) {
+        char[] buffer = new char[8192];
+        try (Reader reader = new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)) {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                if (!judge.accept(buffer, 0, read)) {
+                    ExecutionHandle.destroyTree(process);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // Process may have been killed, ignore
+            if (e.getMessage() == null || !e.getMessage().contains("Stream closed")) {
+                logger.error("Error judging stdout", e);
+            }
+        }
     }
 
     private String truncateOutput(String output) {
@@ -225,20 +706,6 @@ public class CodeExecutionService {
         return output;
     }
 
-    private void deleteDirectory(File directory) {
-        File[] files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    deleteDirectory(file);
-                } else {
-                    file.delete();
-                }
-            }
-        }
-        directory.delete();
-    }
-
     public List<LanguageInfo> getSupportedLanguages() {
         List<LanguageInfo> languages = new ArrayList<>();
         
@@ -295,7 +762,7 @@ public class CodeExecutionService {
         }
     }
 
-    private static class ProcessResult {
+    static class ProcessResult {
         final int exitCode;
         final String stdout;
         final String stderr;
@@ -312,4 +779,22 @@ public class CodeExecutionService {
             this.executionTimeMs = executionTimeMs;
         }
     }
+
+    /**
+     * What one submission has produced so far, handed from stage to stage.
+     */
+    private static class Submission {
+        final CodeExecutionRequest request;
+        final ExecutionTrace trace;
+        Language language;
+        Path workDir;
+        Map<String, String> sources;
+        File sourceFile;
+        long compileTimeMs;
+
+        Submission(CodeExecutionRequest request, ExecutionTrace trace) {
+            this.request = request;
+            this.trace = trace;
+        }
+    }
 }
@@ -0,0 +1,225 @@
+package com.coderplatform.service;
+
+import com.coderplatform.config.ExecutionConfig;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store of compiler outputs. Each entry is a directory named by the hash of
+ * everything that went into compiling one unit, holding its object or class files and the time
+ * the compile originally took. Least recently used entries are evicted past
+ * {@code execution.compile-cache-max-size}.
+ *
+ * Submitted programs run as the backend's user and could rewrite entries on disk, so the SHA-256
+ * of every file is kept in memory when it is stored, and a hit only counts once the copy in the
+ * work dir matches it. Those digests do not outlive the process, so neither do the entries.
+ */
+@Component
+class CompileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompileCache.class);
+
+    private static final String STAGING_PREFIX = ".staging-";
+    private static final String COMPILE_TIME_FILE = ".compile-ms";
+
+    private final ExecutionConfig config;
+    // Entry contents in access order, so the eldest entry is the least recently used
+    private final LinkedHashMap<String, Manifest> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private Path root;
+    private long totalSize;
+
+    CompileCache(ExecutionConfig config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!config.isCompileCacheEnabled()) {
+            return;
+        }
+        root = Path.of(config.getCompileCacheDirectory());
+        Files.createDirectories(root);
+        Files.setPosixFilePermissions(root, PosixFilePermissions.fromString("rwx------"));
+
+        // Entries left by an earlier run have no digests to check them against
+        File[] files = root.toFile().listFiles(File::isDirectory);
+        if (files != null) {
+            for (File dir : files) {
+                Directories.delete(dir);
+            }
+        }
+        logger.info("Compile cache at {}", root);
+    }
+
+    /**
+     * Returns the entry for the key, or null on a miss.
+     */
+    Entry lookup(String key) {
+        Manifest manifest;
+        synchronized (this) {
+            manifest = entries.get(key);
+            if (manifest == null) {
+                return null;
+            }
+        }
+        Path dir = root.resolve(key);
+        try {
+            long compileTimeMs = Long.parseLong(
+                    Files.readString(dir.resolve(COMPILE_TIME_FILE), StandardCharsets.UTF_8).trim());
+            dir.toFile().setLastModified(System.currentTimeMillis());
+            return new Entry(dir, compileTimeMs, manifest);
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Copies the entry's files into the target directory, keeping their relative paths. Returns
+     * false unless every copy matches the digest recorded when the entry was stored: eviction may
+     * delete the entry while it is being copied, and anything else that changed it is dropped.
+     */
+    boolean restore(Entry entry, Path target) {
+        try {
+            for (Map.Entry<String, String> file : entry.manifest.files.entrySet()) {
+                Path copy = target.resolve(file.getKey());
+                Files.createDirectories(copy.getParent());
+                Files.copy(entry.getDir().resolve(file.getKey()), copy,
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                if (!digest(copy).equals(file.getValue())) {
+                    logger.warn("Compile cache entry {} does not match its digest, dropping it", entry.getDir());
+                    invalidate(entry.getDir().getFileName().toString());
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void invalidate(String key) {
+        synchronized (this) {
+            Manifest manifest = entries.remove(key);
+            if (manifest == null) {
+                return;
+            }
+            totalSize -= manifest.size;
+        }
+        Directories.delete(root.resolve(key).toFile());
+    }
+
+    /**
+     * Creates an empty directory for the compiler to write a new entry into.
+     */
+    Path stage() throws IOException {
+        return Files.createTempDirectory(root, STAGING_PREFIX);
+    }
+
+    private void discard(Path staged) {
+        Directories.delete(staged.toFile());
+    }
+
+    /**
+     * Publishes a staged directory under the key. A concurrent build of the same unit may have
+     * won the race, in which case the staged copy is dropped.
+     */
+    void store(String key, Path staged, long compileTimeMs) {
+        try {
+            Files.writeString(staged.resolve(COMPILE_TIME_FILE), Long.toString(compileTimeMs), StandardCharsets.UTF_8);
+            Manifest manifest = Manifest.of(staged);
+            Files.move(staged, root.resolve(key));
+            synchronized (this) {
+                entries.put(key, manifest);
+                totalSize += manifest.size;
+                evict();
+            }
+        } catch (IOException e) {
+            logger.debug("Not caching {}: {}", key, e.getMessage());
+            discard(staged);
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Manifest>> eldest = entries.entrySet().iterator();
+        while (totalSize > config.getCompileCacheMaxSize() && entries.size() > 1 && eldest.hasNext()) {
+            Map.Entry<String, Manifest> entry = eldest.next();
+            eldest.remove();
+            totalSize -= entry.getValue().size;
+            Directories.delete(root.resolve(entry.getKey()).toFile());
+        }
+    }
+
+    static String digest(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The files of an entry, by path relative to the entry directory, with their SHA-256.
+     */
+    private static class Manifest {
+
+        final Map<String, String> files = new TreeMap<>();
+        long size;
+
+        static Manifest of(Path dir) throws IOException {
+            Manifest manifest = new Manifest();
+            try (Stream<Path> paths = Files.walk(dir)) {
+                for (Path path : (Iterable<Path>) paths::iterator) {
+                    if (Files.isRegularFile(path)) {
+                        manifest.size += Files.size(path);
+                        if (!path.getFileName().toString().equals(COMPILE_TIME_FILE)) {
+                            manifest.files.put(dir.relativize(path).toString(), digest(path));
+                        }
+                    }
+                }
+            }
+            return manifest;
+        }
+    }
+
+    static class Entry {
+
+        private final Path dir;
+        private final long compileTimeMs;
+        private final Manifest manifest;
+
+        private Entry(Path dir, long compileTimeMs, Manifest manifest) {
+            this.dir = dir;
+            this.compileTimeMs = compileTimeMs;
+            this.manifest = manifest;
+        }
+
+        Path getDir() {
+            return dir;
+        }
+
+        long getCompileTimeMs() {
+            return compileTimeMs;
+        }
+    }
+}
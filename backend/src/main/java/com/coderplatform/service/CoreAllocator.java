@@ -0,0 +1,302 @@
+package com.coderplatform.service;
+
+import com.coderplatform.config.ExecutionConfig;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Hands out exclusive CPU sets so that a compile or run never shares its cores with another
+ * submission. Compile and run work draw from separate pools, so slow compilers cannot perturb
+ * the timing of programs being judged. Pinning is applied by prefixing commands with taskset.
+ */
+@Component
+public class CoreAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoreAllocator.class);
+
+    private static final String TASKSET = "/usr/bin/taskset";
+    private static final long POLL_INTERVAL_MS = 100;
+
+    public enum Stage {
+        COMPILE,
+        RUN
+    }
+
+    private final ExecutionConfig config;
+    private final Map<Stage, CorePool> pools = new EnumMap<>(Stage.class);
+    private boolean enabled;
+
+    public CoreAllocator(ExecutionConfig config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!config.isAffinityEnabled()) {
+            return;
+        }
+
+        // A mistyped core list fails startup instead of silently pinning to the wrong cores
+        List<Integer> present = presentCpus();
+        List<Integer> configuredCompile = configuredCpus("execution.compile-cpus", config.getCompileCpus(), present);
+        List<Integer> configuredRun = configuredCpus("execution.run-cpus", config.getRunCpus(), present);
+        List<Integer> shared = new ArrayList<>(configuredCompile);
+        shared.retainAll(configuredRun);
+        if (!shared.isEmpty()) {
+            throw new IllegalStateException("execution.compile-cpus and execution.run-cpus overlap on cores "
+                    + shared + "; compiles and runs need separate cores");
+        }
+
+        if (!new File(TASKSET).canExecute()) {
+            logger.warn("CPU affinity disabled: {} not found", TASKSET);
+            return;
+        }
+
+        // taskset rejects cores outside our own affinity mask, so configured cores we may not use
+        // are dropped up front rather than failing every submission
+        List<Integer> allowed = allowedCpus();
+        List<Integer> compileCpus = usable("compile", configuredCompile, allowed);
+        List<Integer> runCpus = usable("run", configuredRun, allowed);
+        if (config.getRunCpus() == null || config.getRunCpus().isBlank()) {
+            for (int cpu : allowed) {
+                if (!compileCpus.contains(cpu)) {
+                    runCpus.add(cpu);
+                }
+            }
+        }
+        if (runCpus.isEmpty()) {
+            logger.warn("CPU affinity disabled: no cores left for runs (allowed cores {})", allowed);
+            return;
+        }
+
+        int perLease = Math.max(config.getCoresPerRun(), 1);
+        CorePool runPool = new CorePool(runCpus, perLease);
+        pools.put(Stage.RUN, runPool);
+        // Without reserved compile cores, compiles compete for the run cores
+        pools.put(Stage.COMPILE, compileCpus.isEmpty() ? runPool : new CorePool(compileCpus, perLease));
+        enabled = true;
+        logger.info("CPU affinity enabled: compile cores {}, run cores {}, {} per lease",
+                compileCpus.isEmpty() ? "shared" : compileCpus, runCpus, perLease);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Waits up to the timeout for an exclusive set of cores for the given stage. Gives up,
+     * returning null, when the handle is cancelled or the time runs out; the caller then ends the
+     * stage rather than running unpinned.
+     */
+    public CoreLease acquire(Stage stage, ExecutionHandle handle, long timeoutMs) throws InterruptedException {
+        if (!enabled) {
+            return null;
+        }
+        return pools.get(stage).acquire(handle, timeoutMs);
+    }
+
+    /**
+     * Prefixes the command with taskset so it starts pinned to the leased cores.
+     */
+    public List<String> pin(List<String> command, CoreLease lease) {
+        if (lease == null || command.isEmpty()) {
+            return command;
+        }
+        List<String> pinned = new ArrayList<>(command.size() + 3);
+        pinned.add(TASKSET);
+        pinned.add("-c");
+        pinned.add(lease.toCpuList());
+        pinned.addAll(command);
+        return pinned;
+    }
+
+    /**
+     * The cores this process may run on, from /proc/self/status; every core when that is not
+     * available.
+     */
+    private static List<Integer> allowedCpus() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("Cpus_allowed_list:")) {
+                    return parseCpuList(line.substring(line.indexOf(':') + 1));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not read the CPU affinity mask", e);
+        }
+        return everyProcessor();
+    }
+
+    /**
+     * The cores the machine has, whether or not this process may use them.
+     */
+    private static List<Integer> presentCpus() {
+        try {
+            return parseCpuList(Files.readString(Paths.get("/sys/devices/system/cpu/present")));
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not read the present CPUs", e);
+        }
+        return everyProcessor();
+    }
+
+    private static List<Integer> everyProcessor() {
+        List<Integer> cpus = new ArrayList<>();
+        for (int cpu = 0; cpu < Runtime.getRuntime().availableProcessors(); cpu++) {
+            cpus.add(cpu);
+        }
+        return cpus;
+    }
+
+    private static List<Integer> configuredCpus(String property, String list, List<Integer> present) {
+        List<Integer> cpus;
+        try {
+            cpus = parseCpuList(list);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid " + property + " \"" + list + "\": " + e.getMessage(), e);
+        }
+        List<Integer> missing = new ArrayList<>(cpus);
+        missing.removeAll(present);
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Invalid " + property + " \"" + list + "\": cores " + missing
+                    + " do not exist on this machine (cores " + present + ")");
+        }
+        return cpus;
+    }
+
+    private static List<Integer> usable(String stage, List<Integer> configured, List<Integer> allowed) {
+        List<Integer> cpus = new ArrayList<>(configured);
+        cpus.retainAll(allowed);
+        if (cpus.size() < configured.size()) {
+            List<Integer> dropped = new ArrayList<>(configured);
+            dropped.removeAll(allowed);
+            logger.warn("Ignoring {} cores {}: outside this process's affinity {}", stage, dropped, allowed);
+        }
+        return cpus;
+    }
+
+    /**
+     * Parses a Linux CPU list such as "0-3,6". Throws IllegalArgumentException, naming the bad
+     * part, for anything else, including descending ranges and cores listed twice.
+     */
+    static List<Integer> parseCpuList(String list) {
+        List<Integer> cpus = new ArrayList<>();
+        if (list == null || list.isBlank()) {
+            return cpus;
+        }
+        for (String part : list.split(",", -1)) {
+            String range = part.trim();
+            int dash = range.indexOf('-');
+            int from = parseCpu(dash < 0 ? range : range.substring(0, dash), range);
+            int to = dash < 0 ? from : parseCpu(range.substring(dash + 1), range);
+            if (to < from) {
+                throw new IllegalArgumentException("range \"" + range + "\" ends before it starts");
+            }
+            for (int cpu = from; cpu <= to; cpu++) {
+                if (cpus.contains(cpu)) {
+                    throw new IllegalArgumentException("core " + cpu + " is listed more than once");
+                }
+                cpus.add(cpu);
+            }
+        }
+        return cpus;
+    }
+
+    private static int parseCpu(String text, String range) {
+        String cpu = text.trim();
+        // Only plain digits: Integer.parseInt would also take signs
+        if (cpu.isEmpty() || cpu.length() > 5 || !cpu.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            throw new IllegalArgumentException("\"" + range + "\" is not a core number or range like 0-3");
+        }
+        return Integer.parseInt(cpu);
+    }
+
+    private static class CorePool {
+
+        private final Deque<Integer> free;
+        private final int perLease;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+
+        CorePool(List<Integer> cpus, int perLease) {
+            this.free = new ArrayDeque<>(cpus);
+            this.perLease = Math.min(perLease, cpus.size());
+        }
+
+        CoreLease acquire(ExecutionHandle handle, long timeoutMs) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            lock.lock();
+            try {
+                while (free.size() < perLease) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || handle.isCancelled()) {
+                        return null;
+                    }
+                    // Wake up periodically to notice a cancel
+                    released.await(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_MS)),
+                            TimeUnit.NANOSECONDS);
+                }
+                List<Integer> cpus = new ArrayList<>(perLease);
+                for (int i = 0; i < perLease; i++) {
+                    cpus.add(free.pollFirst());
+                }
+                return new CoreLease(this, cpus);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(List<Integer> cpus) {
+            lock.lock();
+            try {
+                // Returned cores go to the back so consecutive leases rotate over the pool
+                free.addAll(cpus);
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Exclusive cores held for one compile or run. Closing returns them to their pool.
+     */
+    public static class CoreLease implements AutoCloseable {
+
+        private final CorePool pool;
+        private final List<Integer> cpus;
+        private boolean released;
+
+        private CoreLease(CorePool pool, List<Integer> cpus) {
+            this.pool = pool;
+            this.cpus = Collections.unmodifiableList(cpus);
+        }
+
+        public List<Integer> getCpus() {
+            return cpus;
+        }
+
+        String toCpuList() {
+            return cpus.stream().map(String::valueOf).collect(Collectors.joining(","));
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                pool.release(cpus);
+            }
+        }
+    }
+}
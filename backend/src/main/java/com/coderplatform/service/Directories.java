@@ -0,0 +1,31 @@
+package com.coderplatform.service;
+
+import java.io.File;
+import java.nio.file.Files;
+
+/**
+ * Removal of work dirs, session dirs and cache entries.
+ */
+final class Directories {
+
+    private Directories() {
+    }
+
+    /**
+     * Deletes the directory and everything in it, as far as possible. Symbolic links are removed
+     * without following them, so a link planted by submitted code cannot reach outside the tree.
+     */
+    static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory() && !Files.isSymbolicLink(file.toPath())) {
+                    delete(file);
+                } else {
+                    file.delete();
+                }
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,34 @@
+package com.coderplatform.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering a whole code execution request, from dequeue to the response. Cleanup
+ * runs after that and is only recorded as its own phase event.
+ */
+@Name("com.coderplatform.Execution")
+@Label("Code Execution")
+@Category({"Coder Platform", "Execution"})
+@Description("A complete code execution request")
+@StackTrace(false)
+class ExecutionEvent extends Event {
+
+    @Label("Request Id")
+    long requestId;
+
+    @Label("Language")
+    String language;
+
+    @Label("Status")
+    String status;
+
+    @Label("Code Size")
+    @DataAmount
+    long codeSize;
+}
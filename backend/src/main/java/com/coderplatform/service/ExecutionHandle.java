@@ -0,0 +1,80 @@
+package com.coderplatform.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancellation and deadline state for one submission. The process currently running for the
+ * submission is attached here so that a cancel from another thread can kill its whole tree.
+ */
+public class ExecutionHandle {
+
+    private final String id;
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+    private Process process;
+
+    /**
+     * @param id          submission id, used by {@code DELETE /api/submissions/{id}}
+     * @param deadlineMs  time budget from now in milliseconds, or null for no deadline
+     */
+    public ExecutionHandle(String id, Long deadlineMs) {
+        this.id = id;
+        this.deadlineNanos = deadlineMs == null
+                ? Long.MAX_VALUE
+                : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(deadlineMs, 0));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos != Long.MAX_VALUE && System.nanoTime() >= deadlineNanos;
+    }
+
+    /**
+     * The configured timeout, shortened to whatever is left before the client's deadline.
+     */
+    public long timeoutMs(long configuredTimeoutMs) {
+        if (deadlineNanos == Long.MAX_VALUE) {
+            return configuredTimeoutMs;
+        }
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        return Math.max(Math.min(configuredTimeoutMs, remainingMs), 0);
+    }
+
+    public void cancel() {
+        Process running;
+        synchronized (this) {
+            cancelled = true;
+            running = process;
+        }
+        if (running != null) {
+            destroyTree(running);
+        }
+    }
+
+    synchronized void attach(Process process) {
+        this.process = process;
+        if (cancelled) {
+            destroyTree(process);
+        }
+    }
+
+    synchronized void detach() {
+        this.process = null;
+    }
+
+    /**
+     * Kills the process and everything it spawned. Descendants are collected first because
+     * they stop being descendants once the parent dies and they are reparented.
+     */
+    static void destroyTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+}
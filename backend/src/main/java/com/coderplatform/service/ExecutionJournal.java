@@ -0,0 +1,394 @@
+package com.coderplatform.service;
+
+import com.coderplatform.config.ExecutionConfig;
+import com.coderplatform.model.CodeExecutionRequest;
+import com.coderplatform.model.CodeExecutionResponse;
+import com.coderplatform.model.ExecutionRecord;
+import com.coderplatform.model.ExecutionSummary;
+import com.coderplatform.model.Language;
+import com.coderplatform.model.SourceFile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only binary journal of executions.
+ *
+ * Request threads hand entries to a lock-free ring and return immediately; a single writer
+ * thread serializes them into fixed-size records in memory-mapped segment files. Segments
+ * roll when full and only the newest {@code execution.journal-max-segments} are kept.
+ *
+ * Record layout (64 bytes, little-endian):
+ * <pre>
+ *  0 int   magic (written last, so a torn record is never read back)
+ *  4 byte  language ordinal (-1 if unknown)
+ *  5 byte  status ordinal
+ *  6 short record version
+ *  8 long  timestamp (epoch millis at request start)
+ * 16 long  code hash (first 8 bytes of SHA-256)
+ * 24 int   code, stdin, output, error sizes (4 x int)
+ * 40 int   setup, compile, run, cleanup, total times in ms (5 x int)
+ * 60 int   reserved
+ * </pre>
+ */
+@Component
+public class ExecutionJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionJournal.class);
+
+    private static final int RECORD_SIZE = 64;
+    private static final int MAGIC = 0x4C4E524A;   // "JRNL"
+    private static final short VERSION = 1;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ExecutionConfig config;
+    private JournalRingBuffer<Entry> ring;
+    private Path directory;
+    private long segmentSize;
+    private volatile boolean running;
+    private Thread writer;
+
+    // Writer thread state
+    private MappedByteBuffer segment;
+    private long segmentSequence;
+    private MessageDigest digest;
+
+    public ExecutionJournal(ExecutionConfig config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isJournalEnabled()) {
+            return;
+        }
+        try {
+            directory = Path.of(config.getJournalDirectory());
+            Files.createDirectories(directory);
+            segmentSize = Math.max(config.getJournalSegmentSize() / RECORD_SIZE, 1) * RECORD_SIZE;
+            digest = MessageDigest.getInstance("SHA-256");
+            List<Path> existing = listSegments();
+            segmentSequence = existing.isEmpty() ? 0 : parseSequence(existing.get(existing.size() - 1));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            logger.error("Execution journal disabled: cannot initialize {}", config.getJournalDirectory(), e);
+            return;
+        }
+
+        ring = new JournalRingBuffer<>(config.getJournalRingSize());
+        running = true;
+        writer = new Thread(this::writeLoop, "execution-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Execution journal writing to {}", directory);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues one execution for the journal. Never blocks; if the writer has fallen a full ring
+     * behind, the entry is dropped and counted instead.
+     */
+    void record(CodeExecutionRequest request, CodeExecutionResponse response, ExecutionTrace trace, long totalTimeMs) {
+        if (!running) {
+            return;
+        }
+        if (ring.offer(new Entry(request, response, trace, totalTimeMs))) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void writeLoop() {
+        while (running || !ring.isEmpty()) {
+            Entry entry = ring.poll();
+            if (entry == null) {
+                if (running) {
+                    // record() unparks after each offer; a permit left by one that raced with the
+                    // poll above makes this return at once, so no entry waits for the next one
+                    LockSupport.park(this);
+                } else {
+                    // Draining at shutdown: a slot claimed but not yet published leaves the ring
+                    // non-empty with nothing to poll, and its unpark may already have been spent
+                    LockSupport.parkNanos(this, DRAIN_POLL_NANOS);
+                }
+                continue;
+            }
+            try {
+                write(entry);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to journal execution", e);
+                segment = null;
+            }
+        }
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    private void write(Entry entry) throws IOException {
+        if (segment == null || segment.remaining() < RECORD_SIZE) {
+            rollSegment();
+        }
+        int offset = segment.position();
+        segment.put(offset + 4, entry.language);
+        segment.put(offset + 5, entry.status);
+        segment.putShort(offset + 6, VERSION);
+        segment.putLong(offset + 8, entry.timestamp);
+        segment.putLong(offset + 16, hash(entry.code));
+        segment.putInt(offset + 24, entry.codeSize);
+        segment.putInt(offset + 28, entry.stdinSize);
+        segment.putInt(offset + 32, entry.outputSize);
+        segment.putInt(offset + 36, entry.errorSize);
+        segment.putInt(offset + 40, entry.setupTime);
+        segment.putInt(offset + 44, entry.compileTime);
+        segment.putInt(offset + 48, entry.runTime);
+        segment.putInt(offset + 52, entry.cleanupTime);
+        segment.putInt(offset + 56, entry.totalTime);
+        segment.putInt(offset + 60, 0);
+        segment.putInt(offset, MAGIC);
+        segment.position(offset + RECORD_SIZE);
+    }
+
+    private void rollSegment() throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        segmentSequence++;
+        Path path = directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, segmentSequence, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        logger.debug("Opened journal segment {}", path);
+
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size() - Math.max(config.getJournalMaxSegments(), 1); i++) {
+            Files.deleteIfExists(segments.get(i));
+            logger.debug("Deleted journal segment {}", segments.get(i));
+        }
+    }
+
+    private long hash(String code) {
+        if (code == null) {
+            return 0;
+        }
+        byte[] sha = digest.digest(code.getBytes(StandardCharsets.UTF_8));
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (sha[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * Returns up to {@code limit} most recently journaled executions, newest first.
+     */
+    public List<ExecutionRecord> readRecent(int limit) {
+        List<ExecutionRecord> records = new ArrayList<>();
+        if (directory == null) {
+            return records;
+        }
+        try {
+            List<Path> segments = listSegments();
+            for (int s = segments.size() - 1; s >= 0 && records.size() < limit; s--) {
+                MappedByteBuffer buffer = mapForRead(segments.get(s));
+                if (buffer == null) {
+                    continue;
+                }
+                for (int offset = buffer.capacity() - RECORD_SIZE; offset >= 0 && records.size() < limit;
+                     offset -= RECORD_SIZE) {
+                    if (buffer.getInt(offset) == MAGIC) {
+                        records.add(readRecord(buffer, offset));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read execution journal", e);
+        }
+        return records;
+    }
+
+    /**
+     * Aggregates every journaled execution that started at or after {@code sinceMillis}.
+     */
+    public ExecutionSummary summarize(long sinceMillis) {
+        ExecutionSummary summary = new ExecutionSummary();
+        summary.setSince(sinceMillis);
+        if (directory == null) {
+            return summary;
+        }
+        summary.setDroppedRecords(ring.getDropped());
+
+        long count = 0;
+        long compileTotal = 0;
+        long runTotal = 0;
+        List<Integer> totalTimes = new ArrayList<>();
+        try {
+            for (Path path : listSegments()) {
+                MappedByteBuffer buffer = mapForRead(path);
+                if (buffer == null) {
+                    continue;
+                }
+                for (int offset = 0; offset + RECORD_SIZE <= buffer.capacity(); offset += RECORD_SIZE) {
+                    if (buffer.getInt(offset) != MAGIC || buffer.getLong(offset + 8) < sinceMillis) {
+                        continue;
+                    }
+                    ExecutionRecord record = readRecord(buffer, offset);
+                    count++;
+                    compileTotal += record.getCompileTime();
+                    runTotal += record.getRunTime();
+                    totalTimes.add(record.getTotalTime());
+                    summary.getByLanguage().merge(record.getLanguage(), 1L, Long::sum);
+                    summary.getByStatus().merge(String.valueOf(record.getStatus()), 1L, Long::sum);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read execution journal", e);
+        }
+
+        summary.setCount(count);
+        if (count > 0) {
+            Collections.sort(totalTimes);
+            summary.setAverageCompileTime((double) compileTotal / count);
+            summary.setAverageRunTime((double) runTotal / count);
+            summary.setP50TotalTime(totalTimes.get((int) ((count - 1) * 50 / 100)));
+            summary.setP95TotalTime(totalTimes.get((int) ((count - 1) * 95 / 100)));
+        }
+        return summary;
+    }
+
+    private ExecutionRecord readRecord(MappedByteBuffer buffer, int offset) {
+        ExecutionRecord record = new ExecutionRecord();
+        Language[] languages = Language.values();
+        CodeExecutionResponse.Status[] statuses = CodeExecutionResponse.Status.values();
+        int language = buffer.get(offset + 4);
+        int status = buffer.get(offset + 5);
+
+        record.setLanguage(language >= 0 && language < languages.length ? languages[language].getId() : "unknown");
+        record.setStatus(status >= 0 && status < statuses.length ? statuses[status] : null);
+        record.setTimestamp(buffer.getLong(offset + 8));
+        record.setCodeHash(String.format("%016x", buffer.getLong(offset + 16)));
+        record.setCodeSize(buffer.getInt(offset + 24));
+        record.setStdinSize(buffer.getInt(offset + 28));
+        record.setOutputSize(buffer.getInt(offset + 32));
+        record.setErrorSize(buffer.getInt(offset + 36));
+        record.setSetupTime(buffer.getInt(offset + 40));
+        record.setCompileTime(buffer.getInt(offset + 44));
+        record.setRunTime(buffer.getInt(offset + 48));
+        record.setCleanupTime(buffer.getInt(offset + 52));
+        record.setTotalTime(buffer.getInt(offset + 56));
+        return record;
+    }
+
+    private MappedByteBuffer mapForRead(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        } catch (NoSuchFileException e) {
+            // Removed by retention while we were reading
+            return null;
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long parseSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // Multi-file submissions are hashed over every file name and content
+    private static String sourceText(CodeExecutionRequest request) {
+        if (!request.hasFiles()) {
+            return request.getCode();
+        }
+        StringBuilder text = new StringBuilder();
+        for (SourceFile file : request.getFiles()) {
+            text.append(file.getName()).append('\0').append(file.getContent()).append('\0');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Everything a record needs, captured on the request thread so the response itself is not
+     * retained. Only the code is kept by reference, to be hashed off the hot path.
+     */
+    private static class Entry {
+        final byte language;
+        final byte status;
+        final long timestamp;
+        final String code;
+        final int codeSize;
+        final int stdinSize;
+        final int outputSize;
+        final int errorSize;
+        final int setupTime;
+        final int compileTime;
+        final int runTime;
+        final int cleanupTime;
+        final int totalTime;
+
+        Entry(CodeExecutionRequest request, CodeExecutionResponse response, ExecutionTrace trace, long totalTimeMs) {
+            this.language = (byte) (trace.getLanguage() == null ? -1 : trace.getLanguage().ordinal());
+            this.status = (byte) (response.getStatus() == null ? -1 : response.getStatus().ordinal());
+            this.timestamp = trace.getStartedAt();
+            this.code = sourceText(request);
+            this.codeSize = length(code);
+            this.stdinSize = length(request.getStdin());
+            this.outputSize = length(response.getOutput());
+            this.errorSize = length(response.getError());
+            this.setupTime = (int) trace.getSetupTimeMs();
+            this.compileTime = (int) trace.getCompileTimeMs();
+            this.runTime = (int) trace.getRunTimeMs();
+            this.cleanupTime = (int) trace.getCleanupTimeMs();
+            this.totalTime = (int) totalTimeMs;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.coderplatform.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering one phase of {@link CodeExecutionService#execute}. Nested phases such as
+ * "run.wait" fall inside their parent ("run") in the recording.
+ */
+@Name("com.coderplatform.ExecutionPhase")
+@Label("Execution Phase")
+@Category({"Coder Platform", "Execution"})
+@Description("One phase of a code execution request")
+@StackTrace(false)
+class ExecutionPhaseEvent extends Event {
+
+    @Label("Request Id")
+    long requestId;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Language")
+    String language;
+}
@@ -0,0 +1,239 @@
+package com.coderplatform.service;
+
+import com.coderplatform.config.ExecutionConfig;
+import com.coderplatform.model.PipelineStageStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs each stage of a submission on its own fixed-size pool: preparing the work dir, compiling,
+ * running and cleaning up. A burst of slow compiles then only queues behind the compile threads,
+ * while interpreted runs keep their own capacity. The submitting thread hands the artifacts of
+ * one stage to the next and waits; the finalize stage runs after the response has been returned.
+ */
+@Component
+public class ExecutionPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionPipeline.class);
+
+    // Utilization is reported over the last WINDOW_SAMPLES sample intervals
+    private static final long SAMPLE_INTERVAL_MS = 1000;
+    private static final int WINDOW_SAMPLES = 60;
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final long FINALIZE_DRAIN_MS = 5000;
+
+    public enum Stage {
+        PREPARE,
+        COMPILE,
+        RUN,
+        FINALIZE;
+
+        String getName() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final ExecutionConfig config;
+    private final Map<Stage, StagePool> pools = new EnumMap<>(Stage.class);
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "pipeline-stats");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ExecutionPipeline(ExecutionConfig config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void start() {
+        pools.put(Stage.PREPARE, new StagePool(Stage.PREPARE, config.getPrepareThreads()));
+        pools.put(Stage.COMPILE, new StagePool(Stage.COMPILE, config.getCompileThreads()));
+        pools.put(Stage.RUN, new StagePool(Stage.RUN, config.getRunThreads()));
+        pools.put(Stage.FINALIZE, new StagePool(Stage.FINALIZE, config.getFinalizeThreads()));
+        sampler.scheduleAtFixedRate(() -> pools.values().forEach(StagePool::sample),
+                SAMPLE_INTERVAL_MS, SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        logger.info("Execution pipeline threads: prepare {}, compile {}, run {}, finalize {}",
+                pools.get(Stage.PREPARE).threads, pools.get(Stage.COMPILE).threads,
+                pools.get(Stage.RUN).threads, pools.get(Stage.FINALIZE).threads);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        sampler.shutdownNow();
+        for (Stage stage : Stage.values()) {
+            if (stage != Stage.FINALIZE) {
+                pools.get(stage).executor.shutdownNow();
+            }
+        }
+        // Let pending cleanups finish so work dirs are not left behind
+        ThreadPoolExecutor finalizer = pools.get(Stage.FINALIZE).executor;
+        finalizer.shutdown();
+        finalizer.awaitTermination(FINALIZE_DRAIN_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs the task on the stage's pool and waits for its result. Time spent queued shows up as
+     * the "<stage>.queue" phase. A submission that is cancelled or runs out of time while still
+     * queued is dropped with a {@link CancellationException}.
+     */
+    <T> T call(Stage stage, ExecutionTrace trace, Callable<T> task) throws Exception {
+        StagePool pool = pools.get(stage);
+        ExecutionHandle handle = trace.getHandle();
+        AtomicBoolean started = new AtomicBoolean();
+        ExecutionTrace.Phase queued = trace.phase(stage.getName() + ".queue");
+        long queuedAt = System.nanoTime();
+        Future<T> future = pool.executor.submit(() -> {
+            if (!started.compareAndSet(false, true)) {
+                return null;
+            }
+            queued.close();
+            return pool.measure(queuedAt, task);
+        });
+
+        try {
+            while (true) {
+                try {
+                    return future.get(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Once started, the task itself notices cancels and deadlines
+                    if ((handle.isCancelled() || handle.isExpired()) && started.compareAndSet(false, true)) {
+                        future.cancel(false);
+                        pool.executor.remove((Runnable) future);
+                        throw new CancellationException("Abandoned while queued for " + stage.getName());
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        } catch (InterruptedException e) {
+            // The caller gave up (e.g. an aborted batch); stop the submission wherever it is
+            handle.cancel();
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Queues the task on the stage's pool without waiting for it.
+     */
+    void submit(Stage stage, Runnable task) {
+        StagePool pool = pools.get(stage);
+        long queuedAt = System.nanoTime();
+        try {
+            pool.executor.execute(() -> {
+                try {
+                    pool.measure(queuedAt, Executors.callable(task));
+                } catch (Exception e) {
+                    logger.warn("{} task failed", stage.getName(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; run it here rather than lose it
+            task.run();
+        }
+    }
+
+    public List<PipelineStageStats> getStats() {
+        List<PipelineStageStats> stats = new ArrayList<>();
+        for (StagePool pool : pools.values()) {
+            stats.add(pool.stats());
+        }
+        return stats;
+    }
+
+    private static class StagePool {
+
+        private final Stage stage;
+        private final int threads;
+        private final ThreadPoolExecutor executor;
+
+        // Cumulative counters; busy time of running tasks is added when sampled
+        private long busyNanos;
+        private long queueNanos;
+        private long completed;
+        private int running;
+        private long runningStartSum;
+
+        // Ring of samples, oldest at sampleIndex once full
+        private final Sample[] samples = new Sample[WINDOW_SAMPLES + 1];
+        private int sampleIndex;
+
+        StagePool(Stage stage, int threads) {
+            this.stage = stage;
+            this.threads = Math.max(threads, 1);
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread t = new Thread(r, stage.getName() + "-worker-" + threadCount.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            sample();
+        }
+
+        <T> T measure(long queuedAt, Callable<T> task) throws Exception {
+            long start = System.nanoTime();
+            synchronized (this) {
+                queueNanos += start - queuedAt;
+                running++;
+                runningStartSum += start;
+            }
+            try {
+                return task.call();
+            } finally {
+                long end = System.nanoTime();
+                synchronized (this) {
+                    busyNanos += end - start;
+                    completed++;
+                    running--;
+                    runningStartSum -= start;
+                }
+            }
+        }
+
+        synchronized void sample() {
+            long now = System.nanoTime();
+            samples[sampleIndex] = new Sample(now, busyNanos + running * now - runningStartSum, queueNanos, completed);
+            sampleIndex = (sampleIndex + 1) % samples.length;
+        }
+
+        synchronized PipelineStageStats stats() {
+            Sample oldest = samples[sampleIndex] != null ? samples[sampleIndex] : samples[0];
+            long now = System.nanoTime();
+            long busy = busyNanos + running * now - runningStartSum - oldest.busyNanos;
+            long elapsed = now - oldest.nanos;
+            long done = completed - oldest.completed;
+            double utilization = elapsed <= 0 ? 0 : Math.min((double) busy / ((double) elapsed * threads), 1.0);
+            double averageQueueTime = done == 0 ? 0 : (queueNanos - oldest.queueNanos) / 1e6 / done;
+            return new PipelineStageStats(stage.getName(), threads, executor.getActiveCount(),
+                    executor.getQueue().size(), completed, utilization, averageQueueTime);
+        }
+    }
+
+    private static class Sample {
+        final long nanos;
+        final long busyNanos;
+        final long queueNanos;
+        final long completed;
+
+        Sample(long nanos, long busyNanos, long queueNanos, long completed) {
+            this.nanos = nanos;
+            this.busyNanos = busyNanos;
+            this.queueNanos = queueNanos;
+            this.completed = completed;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.coderplatform.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks in-flight submissions by id so they can be cancelled from another request.
+ */
+@Component
+public class ExecutionRegistry {
+
+    private final Map<String, ExecutionHandle> running = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a submission under the client-supplied id, or a generated one when the id is
+     * missing or already in use.
+     */
+    public ExecutionHandle register(String requestedId, Long deadlineMs) {
+        while (true) {
+            String id = requestedId == null || requestedId.isBlank() ? UUID.randomUUID().toString() : requestedId;
+            ExecutionHandle handle = new ExecutionHandle(id, deadlineMs);
+            if (running.putIfAbsent(id, handle) == null) {
+                return handle;
+            }
+            requestedId = null;
+        }
+    }
+
+    public void unregister(ExecutionHandle handle) {
+        running.remove(handle.getId(), handle);
+    }
+
+    public boolean cancel(String id) {
+        ExecutionHandle handle = running.get(id);
+        if (handle == null) {
+            return false;
+        }
+        handle.cancel();
+        return true;
+    }
+}
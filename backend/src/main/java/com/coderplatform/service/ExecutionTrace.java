@@ -0,0 +1,180 @@
+package com.coderplatform.service;
+
+import com.coderplatform.model.CompileStats;
+import com.coderplatform.model.JudgeVerdict;
+import com.coderplatform.model.Language;
+import com.coderplatform.model.PhaseTiming;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-request bookkeeping filled in while {@link CodeExecutionService} runs a submission.
+ * Used by one thread at a time but not always the same one: {@link ExecutionPipeline#call}
+ * closes the queue phase on a pool thread and the request thread carries on once the task's
+ * Future completes. The fields have no locks of their own; submitting the task and
+ * {@code Future.get} order one thread's updates before the next thread's, so anything that
+ * touches a trace from another thread must hand it over through an executor or Future too.
+ *
+ * Each {@link #phase(String)} emits an {@link ExecutionPhaseEvent} to JFR and, when the
+ * request asked for it, an entry in the debug timeline.
+ */
+class ExecutionTrace {
+
+    private static final AtomicLong requestIds = new AtomicLong();
+
+    private final long requestId = requestIds.incrementAndGet();
+    private final ExecutionHandle handle;
+    private final long startedAt = System.currentTimeMillis();
+    private final long originNanos = System.nanoTime();
+    private List<PhaseTiming> timeline;
+    private Language language;
+    private long setupTimeMs;
+    private long compileTimeMs;
+    private long runTimeMs;
+    private long cleanupTimeMs;
+    private List<Integer> compileCores;
+    private List<Integer> runCores;
+    private CompileStats compileStats;
+    private JudgeVerdict verdict;
+
+    ExecutionTrace(ExecutionHandle handle) {
+        this.handle = handle;
+    }
+
+    Phase phase(String name) {
+        return new Phase(name);
+    }
+
+    void enableTimeline() {
+        if (timeline == null) {
+            timeline = new ArrayList<>();
+        }
+    }
+
+    List<PhaseTiming> getTimeline() {
+        return timeline;
+    }
+
+    ExecutionHandle getHandle() {
+        return handle;
+    }
+
+    long getRequestId() {
+        return requestId;
+    }
+
+    long getStartedAt() {
+        return startedAt;
+    }
+
+    Language getLanguage() {
+        return language;
+    }
+
+    void setLanguage(Language language) {
+        this.language = language;
+    }
+
+    long getSetupTimeMs() {
+        return setupTimeMs;
+    }
+
+    void setSetupTimeMs(long setupTimeMs) {
+        this.setupTimeMs = setupTimeMs;
+    }
+
+    long getCompileTimeMs() {
+        return compileTimeMs;
+    }
+
+    void setCompileTimeMs(long compileTimeMs) {
+        this.compileTimeMs = compileTimeMs;
+    }
+
+    long getRunTimeMs() {
+        return runTimeMs;
+    }
+
+    void setRunTimeMs(long runTimeMs) {
+        this.runTimeMs = runTimeMs;
+    }
+
+    long getCleanupTimeMs() {
+        return cleanupTimeMs;
+    }
+
+    void setCleanupTimeMs(long cleanupTimeMs) {
+        this.cleanupTimeMs = cleanupTimeMs;
+    }
+
+    List<Integer> getCompileCores() {
+        return compileCores;
+    }
+
+    void setCompileCores(List<Integer> compileCores) {
+        this.compileCores = compileCores;
+    }
+
+    List<Integer> getRunCores() {
+        return runCores;
+    }
+
+    void setRunCores(List<Integer> runCores) {
+        this.runCores = runCores;
+    }
+
+    CompileStats getCompileStats() {
+        return compileStats;
+    }
+
+    void setCompileStats(CompileStats compileStats) {
+        this.compileStats = compileStats;
+    }
+
+    JudgeVerdict getVerdict() {
+        return verdict;
+    }
+
+    void setVerdict(JudgeVerdict verdict) {
+        this.verdict = verdict;
+    }
+
+    /**
+     * A timed section of the request, closed with try-with-resources. The resource is rarely
+     * used inside the block, so methods that time phases suppress javac's "try" lint warning.
+     */
+    class Phase implements AutoCloseable {
+
+        private final String name;
+        private final ExecutionPhaseEvent event = new ExecutionPhaseEvent();
+        private final long startNanos;
+
+        private Phase(String name) {
+            this.name = name;
+            this.event.begin();
+            this.startNanos = System.nanoTime();
+        }
+
+        /** Elapsed time so far, in milliseconds. */
+        long elapsedMs() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+
+        @Override
+        public void close() {
+            long endNanos = System.nanoTime();
+            event.end();
+            if (event.shouldCommit()) {
+                event.requestId = requestId;
+                event.phase = name;
+                event.language = language == null ? null : language.getId();
+                event.commit();
+            }
+            if (timeline != null) {
+                timeline.add(new PhaseTiming(name, (startNanos - originNanos) / 1000, (endNanos - startNanos) / 1000));
+            }
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package com.coderplatform.service;
+
+import com.coderplatform.config.ExecutionConfig;
+import com.coderplatform.model.CompileStats;
+import com.coderplatform.model.Language;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Builds C, C++, Java and Rust submissions unit by unit against the {@link CompileCache}, so a
+ * resubmission only recompiles the files that changed.
+ *
+ * A unit's cache key covers its own content and that of every project file it depends on:
+ * quoted includes for C and C++, and referenced type names for Java. Rust crates are compiled
+ * by rustc as a whole, so the crate is a single unit keyed by all of its files.
+ */
+@Component
+class IncrementalCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalCompiler.class);
+
+    // Bump when the layout of cache entries or the compiler flags change
+    private static final String CACHE_VERSION = "2";
+
+    // Quoted, angle-bracket, or computed (macro) include
+    private static final Pattern C_INCLUDE = Pattern.compile(
+            "^\\s*#\\s*include\\s*(?:\"([^\"]+)\"|<([^>]+)>|(\\S.*))", Pattern.MULTILINE);
+    private static final Pattern JAVA_TYPE = Pattern.compile("\\b(?:class|interface|enum|record)\\s+(\\w+)");
+    private static final Pattern JAVA_PACKAGE = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+    private static final Pattern WORD = Pattern.compile("\\w+");
+
+    /**
+     * Runs one compiler or linker invocation in the work dir on behalf of the build, killing it
+     * after the timeout.
+     */
+    @FunctionalInterface
+    interface ProcessRunner {
+        CodeExecutionService.ProcessResult run(List<String> command, String stage, long timeoutMs)
+                throws IOException, InterruptedException;
+    }
+
+    static class BuildResult {
+
+        final CodeExecutionService.ProcessResult failure;   // the failed step, if any
+        final long compileTimeMs;
+        final CompileStats stats;
+
+        BuildResult(CodeExecutionService.ProcessResult failure, long compileTimeMs, CompileStats stats) {
+            this.failure = failure;
+            this.compileTimeMs = compileTimeMs;
+            this.stats = stats;
+        }
+    }
+
+    /**
+     * Gives each step of a build what is left of its budget, and fails the step as timed out
+     * without running it once nothing is left.
+     */
+    private static class BudgetedRunner {
+
+        private final ProcessRunner runner;
+        private final long deadline;
+
+        BudgetedRunner(ProcessRunner runner, long budgetMs) {
+            this.runner = runner;
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        }
+
+        CodeExecutionService.ProcessResult run(List<String> command, String stage)
+                throws IOException, InterruptedException {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                return new CodeExecutionService.ProcessResult(-1, "", "", true, false, 0);
+            }
+            return runner.run(command, stage, remainingMs);
+        }
+    }
+
+    private final ExecutionConfig config;
+    private final CompileCache cache;
+
+    IncrementalCompiler(ExecutionConfig config, CompileCache cache) {
+        this.config = config;
+        this.cache = cache;
+    }
+
+    boolean supports(Language language) {
+        if (!config.isCompileCacheEnabled()) {
+            return false;
+        }
+        switch (language) {
+            case C:
+            case CPP:
+            case JAVA:
+            case RUST:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Builds the project in the work dir. Sources are relative paths; the entry file decides the
+     * name of the produced binary for C, C++ and Rust. All compiler and linker runs share the
+     * time budget; the build fails as timed out once it is used up.
+     */
+    BuildResult build(Language language, Map<String, String> sources, File entryFile, File workDir,
+                      long budgetMs, ProcessRunner runner) throws IOException, InterruptedException {
+        BudgetedRunner budgeted = new BudgetedRunner(runner, budgetMs);
+        switch (language) {
+            case C:
+                return buildNative(sources, entryFile, workDir, budgeted, "gcc", Set.of(".c"));
+            case CPP:
+                return buildNative(sources, entryFile, workDir, budgeted, "g++", Set.of(".cpp", ".cc", ".cxx"));
+            case JAVA:
+                return buildJava(sources, workDir, budgeted);
+            case RUST:
+                return buildRust(sources, entryFile, workDir, budgeted);
+            default:
+                throw new IllegalArgumentException("No incremental build for " + language);
+        }
+    }
+
+    /**
+     * Compiles each translation unit to an object file on a cache miss, then links all objects.
+     * Cached objects are restored into the work dir first, since the cache may evict them while
+     * the link runs.
+     */
+    private BuildResult buildNative(Map<String, String> sources, File entryFile, File workDir, BudgetedRunner runner,
+                                    String compiler, Set<String> unitExtensions) throws IOException, InterruptedException {
+        List<String> objects = new ArrayList<>();
+        long compileTimeMs = 0;
+        long savedTimeMs = 0;
+        int compiled = 0;
+        int cached = 0;
+
+        for (String unit : sources.keySet()) {
+            if (!unitExtensions.contains(extension(unit))) {
+                continue;
+            }
+            String key = key(compiler, unit, sources, includeClosure(unit, sources));
+            Path objectDir = workDir.toPath().resolve(".objects");
+            Path object = objectDir.resolve(objects.size() + ".o");
+            Files.createDirectories(objectDir);
+            CompileCache.Entry entry = cache.lookup(key);
+            Path restored = objectDir.resolve(String.valueOf(objects.size()));
+            if (entry != null && cache.restore(entry, restored)) {
+                objects.add(restored.resolve("unit.o").toString());
+                savedTimeMs += entry.getCompileTimeMs();
+                cached++;
+                continue;
+            }
+
+            // Link the fresh object from the work dir; the cached copy may be evicted at any time
+            CodeExecutionService.ProcessResult result = runner.run(
+                    List.of(compiler, "-c", "-I.", unit, "-o", object.toString()), "compile");
+            compileTimeMs += result.executionTimeMs;
+            if (result.exitCode != 0 || result.timedOut) {
+                return new BuildResult(result, compileTimeMs, new CompileStats(compiled, cached, savedTimeMs));
+            }
+            Path staged = cache.stage();
+            Files.copy(object, staged.resolve("unit.o"));
+            cache.store(key, staged, result.executionTimeMs);
+            objects.add(object.toString());
+            compiled++;
+        }
+
+        List<String> link = new ArrayList<>();
+        link.add(compiler);
+        link.add("-o");
+        link.add(baseName(entryFile.getName()));
+        link.addAll(objects);
+        CodeExecutionService.ProcessResult result = runner.run(link, "link");
+        compileTimeMs += result.executionTimeMs;
+        CodeExecutionService.ProcessResult failure = result.exitCode != 0 || result.timedOut ? result : null;
+        return new BuildResult(failure, compileTimeMs, new CompileStats(compiled, cached, savedTimeMs));
+    }
+
+    /**
+     * Copies cached classes into the work dir and compiles the remaining sources in one javac run
+     * against them. New class files are attributed to their source through the SourceFile attribute.
+     */
+    private BuildResult buildJava(Map<String, String> sources, File workDir, BudgetedRunner runner)
+            throws IOException, InterruptedException {
+        Map<String, String> typeOwners = typeOwners(sources);
+        Path classes = workDir.toPath();
+        Map<String, String> missKeys = new LinkedHashMap<>();
+        long savedTimeMs = 0;
+        int cached = 0;
+        for (String unit : sources.keySet()) {
+            if (!unit.endsWith(".java")) {
+                continue;
+            }
+            String key = key("javac", unit, sources, referenceClosure(unit, sources, typeOwners));
+            CompileCache.Entry entry = cache.lookup(key);
+            if (entry != null && cache.restore(entry, classes)) {
+                savedTimeMs += entry.getCompileTimeMs();
+                cached++;
+            } else {
+                missKeys.put(unit, key);
+            }
+        }
+        if (missKeys.isEmpty()) {
+            return new BuildResult(null, 0, new CompileStats(0, cached, savedTimeMs));
+        }
+
+        Set<Path> before = listClassFiles(classes);
+        List<String> command = new ArrayList<>();
+        command.add("javac");
+        command.add("-d");
+        command.add(".");
+        command.add("-cp");
+        command.add(".");
+        // Only the listed sources may be compiled; everything else must come from cached classes
+        command.add("-implicit:none");
+        command.add("-sourcepath");
+        command.add(".sources-none");
+        command.addAll(missKeys.keySet());
+        CodeExecutionService.ProcessResult result = runner.run(command, "compile");
+        CompileStats stats = new CompileStats(missKeys.size(), cached, savedTimeMs);
+        if (result.exitCode != 0 || result.timedOut) {
+            return new BuildResult(result, result.executionTimeMs, stats);
+        }
+
+        storeJavaClasses(sources, missKeys, classes, before, result.executionTimeMs);
+        return new BuildResult(null, result.executionTimeMs, stats);
+    }
+
+    private void storeJavaClasses(Map<String, String> sources, Map<String, String> missKeys, Path classes,
+                                  Set<Path> before, long compileTimeMs) throws IOException {
+        // Class files are matched to sources by package directory and source file name
+        Map<String, List<Path>> produced = new HashMap<>();
+        for (Path classFile : listClassFiles(classes)) {
+            if (before.contains(classFile)) {
+                continue;
+            }
+            String sourceName = readSourceFileAttribute(classes.resolve(classFile));
+            Path packageDir = classFile.getParent();
+            String owner = missKeys.keySet().stream()
+                    .filter(unit -> fileName(unit).equals(sourceName)
+                            && packageDir(sources.get(unit)).equals(packageDir == null ? "" : packageDir.toString()))
+                    .findFirst().orElse(null);
+            if (owner == null) {
+                logger.debug("Not caching Java build: cannot attribute {}", classFile);
+                return;
+            }
+            produced.computeIfAbsent(owner, unit -> new ArrayList<>()).add(classFile);
+        }
+
+        long perUnitMs = compileTimeMs / missKeys.size();
+        for (Map.Entry<String, String> miss : missKeys.entrySet()) {
+            Path staged = cache.stage();
+            for (Path classFile : produced.getOrDefault(miss.getKey(), List.of())) {
+                Path target = staged.resolve(classFile);
+                Files.createDirectories(target.getParent());
+                Files.copy(classes.resolve(classFile), target);
+            }
+            cache.store(miss.getValue(), staged, perUnitMs);
+        }
+    }
+
+    /**
+     * rustc resolves modules itself, so the whole crate is one unit.
+     */
+    private BuildResult buildRust(Map<String, String> sources, File entryFile, File workDir, BudgetedRunner runner)
+            throws IOException, InterruptedException {
+        String entryName = workDir.toPath().relativize(entryFile.toPath()).toString();
+        Set<String> crate = sources.keySet().stream().filter(name -> name.endsWith(".rs"))
+                .collect(Collectors.toCollection(TreeSet::new));
+        String key = key("rustc", entryName, sources, crate);
+        Path binary = workDir.toPath().resolve(baseName(entryFile.getName()));
+
+        CompileCache.Entry entry = cache.lookup(key);
+        Path restored = workDir.toPath().resolve(".objects");
+        if (entry != null && cache.restore(entry, restored)) {
+            Files.move(restored.resolve("binary"), binary, StandardCopyOption.REPLACE_EXISTING);
+            return new BuildResult(null, 0, new CompileStats(0, 1, entry.getCompileTimeMs()));
+        }
+
+        CodeExecutionService.ProcessResult result = runner.run(
+                List.of("rustc", "-o", binary.getFileName().toString(), entryName), "compile");
+        CompileStats stats = new CompileStats(1, 0, 0);
+        if (result.exitCode != 0 || result.timedOut) {
+            return new BuildResult(result, result.executionTimeMs, stats);
+        }
+        Path staged = cache.stage();
+        Files.copy(binary, staged.resolve("binary"), StandardCopyOption.COPY_ATTRIBUTES);
+        cache.store(key, staged, result.executionTimeMs);
+        return new BuildResult(null, result.executionTimeMs, stats);
+    }
+
+    /**
+     * Project files reachable from the unit through includes. Quoted includes resolve against the
+     * including file's directory first, then the project root; angle-bracket includes only against
+     * the project root, which the build puts first on the search path with -I. A computed include
+     * cannot be followed, so the unit then depends on every project file.
+     */
+    static Set<String> includeClosure(String unit, Map<String, String> sources) {
+        Set<String> closure = new TreeSet<>();
+        Deque<String> pending = new ArrayDeque<>(List.of(unit));
+        while (!pending.isEmpty()) {
+            String file = pending.pop();
+            Matcher matcher = C_INCLUDE.matcher(sources.get(file));
+            while (matcher.find()) {
+                if (matcher.group(3) != null) {
+                    Set<String> all = new TreeSet<>(sources.keySet());
+                    all.remove(unit);
+                    return all;
+                }
+                String include = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+                String fromRoot = Path.of(include).normalize().toString();
+                String resolved = sources.containsKey(fromRoot) ? fromRoot : null;
+                if (matcher.group(1) != null) {
+                    Path parent = Path.of(file).getParent();
+                    String relative = parent == null ? fromRoot : parent.resolve(include).normalize().toString();
+                    if (sources.containsKey(relative)) {
+                        resolved = relative;
+                    }
+                }
+                if (resolved != null && !resolved.equals(unit) && closure.add(resolved)) {
+                    pending.push(resolved);
+                }
+            }
+        }
+        return closure;
+    }
+
+    /**
+     * Maps each type name declared in the project's Java sources to the file declaring it. A
+     * file's own name counts first, so a public type wins over a same-named nested one elsewhere.
+     */
+    static Map<String, String> typeOwners(Map<String, String> sources) {
+        Map<String, String> typeOwners = new HashMap<>();
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            if (source.getKey().endsWith(".java")) {
+                typeOwners.put(baseName(fileName(source.getKey())), source.getKey());
+                Matcher matcher = JAVA_TYPE.matcher(source.getValue());
+                while (matcher.find()) {
+                    typeOwners.putIfAbsent(matcher.group(1), source.getKey());
+                }
+            }
+        }
+        return typeOwners;
+    }
+
+    /**
+     * Project sources whose types the unit mentions, followed transitively, since a change to a
+     * referenced class's signatures can change how the unit compiles.
+     */
+    static Set<String> referenceClosure(String unit, Map<String, String> sources, Map<String, String> typeOwners) {
+        Set<String> closure = new TreeSet<>();
+        Deque<String> pending = new ArrayDeque<>(List.of(unit));
+        while (!pending.isEmpty()) {
+            Matcher matcher = WORD.matcher(sources.get(pending.pop()));
+            while (matcher.find()) {
+                String owner = typeOwners.get(matcher.group());
+                if (owner != null && !owner.equals(unit) && closure.add(owner)) {
+                    pending.push(owner);
+                }
+            }
+        }
+        return closure;
+    }
+
+    static String key(String tool, String unit, Map<String, String> sources, Set<String> dependencies) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, CACHE_VERSION);
+            update(digest, tool);
+            update(digest, unit);
+            update(digest, sources.get(unit));
+            for (String dependency : dependencies) {
+                update(digest, dependency);
+                update(digest, sources.get(dependency));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        // Length-prefix each field so that adjacent fields cannot run into each other
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static Set<Path> listClassFiles(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(path -> path.toString().endsWith(".class"))
+                    .map(dir::relativize)
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Reads the SourceFile attribute of a class file, which javac emits by default.
+     */
+    static String readSourceFileAttribute(Path classFile) throws IOException {
+        try (InputStream in = Files.newInputStream(classFile);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+            if (data.readInt() != 0xCAFEBABE) {
+                return null;
+            }
+            data.skipBytes(4);  // minor and major version
+            int count = data.readUnsignedShort();
+            String[] utf8 = new String[count];
+            for (int i = 1; i < count; i++) {
+                int tag = data.readUnsignedByte();
+                switch (tag) {
+                    case 1:
+                        utf8[i] = data.readUTF();
+                        break;
+                    case 5:
+                    case 6:
+                        data.skipBytes(8);
+                        i++;  // longs and doubles take two slots
+                        break;
+                    case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                        data.skipBytes(4);
+                        break;
+                    case 15:
+                        data.skipBytes(3);
+                        break;
+                    case 7: case 8: case 16: case 19: case 20:
+                        data.skipBytes(2);
+                        break;
+                    default:
+                        return null;
+                }
+            }
+            data.skipBytes(6);  // access flags, this class, super class
+            data.skipBytes(2 * data.readUnsignedShort());  // interfaces
+            for (int members = 0; members < 2; members++) {  // fields, then methods
+                int memberCount = data.readUnsignedShort();
+                for (int m = 0; m < memberCount; m++) {
+                    data.skipBytes(6);
+                    skipAttributes(data);
+                }
+            }
+            int attributes = data.readUnsignedShort();
+            for (int a = 0; a < attributes; a++) {
+                String name = utf8[data.readUnsignedShort()];
+                int length = data.readInt();
+                if ("SourceFile".equals(name)) {
+                    return utf8[data.readUnsignedShort()];
+                }
+                data.skipBytes(length);
+            }
+            return null;
+        }
+    }
+
+    private static void skipAttributes(DataInputStream data) throws IOException {
+        int attributes = data.readUnsignedShort();
+        for (int a = 0; a < attributes; a++) {
+            data.skipBytes(2);
+            data.skipBytes(data.readInt());
+        }
+    }
+
+    private static String packageDir(String source) {
+        Matcher matcher = JAVA_PACKAGE.matcher(source);
+        return matcher.find() ? matcher.group(1).replace('.', File.separatorChar) : "";
+    }
+
+    private static String fileName(String path) {
+        return Path.of(path).getFileName().toString();
+    }
+
+    private static String baseName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? fileName : fileName.substring(0, dot);
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot);
+    }
+}
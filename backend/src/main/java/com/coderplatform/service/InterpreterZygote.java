@@ -0,0 +1,130 @@
+package com.coderplatform.service;
+
+import com.coderplatform.model.Language;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A supervised, pre-initialized interpreter that forks one child per submission.
+ * The zygote is restarted transparently the next time it is used after dying.
+ */
+class InterpreterZygote {
+
+    private static final Logger logger = LoggerFactory.getLogger(InterpreterZygote.class);
+
+    private static final long STARTUP_TIMEOUT_MS = 10000;
+
+    private final Language language;
+    private final List<String> command;
+    private final Path socketPath;
+    private Process process;
+
+    InterpreterZygote(Language language, List<String> command, Path socketPath) {
+        this.language = language;
+        this.command = command;
+        this.socketPath = socketPath;
+    }
+
+    Language getLanguage() {
+        return language;
+    }
+
+    synchronized void start() throws IOException {
+        stop();
+        Files.deleteIfExists(socketPath);
+
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectInput(ProcessBuilder.Redirect.from(new File("/dev/null")));
+        pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+        pb.environment().put("LANG", "en_US.UTF-8");
+        process = pb.start();
+
+        // The socket file appears once the zygote has finished its imports and is listening
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MS;
+        while (!Files.exists(socketPath)) {
+            if (!process.isAlive()) {
+                throw new IOException(language + " zygote exited during startup with code " + process.exitValue());
+            }
+            if (System.currentTimeMillis() > deadline) {
+                stop();
+                throw new IOException(language + " zygote did not start within " + STARTUP_TIMEOUT_MS + "ms");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop();
+                throw new InterruptedIOException("Interrupted while starting " + language + " zygote");
+            }
+        }
+        logger.info("Started {} zygote (pid {}) on {}", language, process.pid(), socketPath);
+    }
+
+    synchronized void stop() {
+        if (process != null) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+            process = null;
+        }
+    }
+
+    synchronized boolean isAlive() {
+        return process != null && process.isAlive();
+    }
+
+    private synchronized void ensureRunning() throws IOException {
+        if (process == null || !process.isAlive()) {
+            if (process != null) {
+                logger.warn("{} zygote died with code {}, restarting", language, process.exitValue());
+            }
+            start();
+        }
+    }
+
+    /**
+     * Forks a child that runs the given source in its work dir. The returned process is already
+     * running; its stdio is connected through FIFOs in the work dir. Fails, with the child
+     * killed, if the child has not connected its stdio within the timeout or the handle is
+     * cancelled first.
+     */
+    Process spawn(File sourceFile, File workDir, long memoryLimitBytes, long timeoutMs, List<Integer> cpus,
+                  ExecutionHandle handle) throws IOException {
+        ensureRunning();
+
+        SocketChannel control = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            control.connect(UnixDomainSocketAddress.of(socketPath));
+            long cpuSeconds = (timeoutMs + 999) / 1000 + 1;
+            String header = workDir.getAbsolutePath() + "\t" + sourceFile.getAbsolutePath() + "\t"
+                    + memoryLimitBytes + "\t" + cpuSeconds + "\t"
+                    + (cpus == null ? "" : cpus.stream().map(String::valueOf).collect(Collectors.joining(","))) + "\n";
+            OutputStream out = Channels.newOutputStream(control);
+            out.write(header.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Channels.newInputStream(control), StandardCharsets.UTF_8));
+            String reply = reader.readLine();
+            if (reply == null || !reply.startsWith("pid ")) {
+                throw new IOException(language + " zygote rejected submission: " + reply);
+            }
+            long pid = Long.parseLong(reply.substring(4).trim());
+            return ZygoteProcess.open(control, reader, pid, workDir, timeoutMs, handle);
+        } catch (IOException | RuntimeException e) {
+            control.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.coderplatform.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring. Producers never wait: when the ring is full
+ * the element is rejected and counted, so a slow disk cannot back up into request threads.
+ */
+class JournalRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong producerSequence = new AtomicLong();
+    private final AtomicLong consumerSequence = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    JournalRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(requestedCapacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    boolean offer(E element) {
+        long sequence;
+        do {
+            sequence = producerSequence.get();
+            if (sequence - consumerSequence.get() > mask) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!producerSequence.compareAndSet(sequence, sequence + 1));
+        slots.lazySet((int) (sequence & mask), element);
+        return true;
+    }
+
+    /** Only called from the consumer thread. Returns null when nothing has been published yet. */
+    E poll() {
+        long sequence = consumerSequence.get();
+        int index = (int) (sequence & mask);
+        E element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        consumerSequence.lazySet(sequence + 1);
+        return element;
+    }
+
+    boolean isEmpty() {
+        return consumerSequence.get() == producerSequence.get();
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+}
@@ -6,23 +6,36 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Component
 public class LanguageExecutor {
 
     private static final Logger logger = LoggerFactory.getLogger(LanguageExecutor.class);
 
-    public List<String> getCompileCommand(Language language, File sourceFile, File workDir) {
+    private static final Pattern JAVA_PACKAGE = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+
+    /**
+     * Builds the compile command for the entry file. Project files are the work-dir relative
+     * names of all sources; C, C++, Java and Kotlin compile every one of their source files,
+     * while TypeScript and Rust follow imports and modules from the entry file themselves.
+     */
+    public List<String> getCompileCommand(Language language, File sourceFile, File workDir,
+                                          Collection<String> projectFiles) {
         List<String> command = new ArrayList<>();
-        String fileName = sourceFile.getName();
-        String baseName = fileName.substring(0, fileName.lastIndexOf('.'));
+        String fileName = workDir.toPath().relativize(sourceFile.toPath()).toString();
+        String baseName = sourceFile.getName().substring(0, sourceFile.getName().lastIndexOf('.'));
 
         switch (language) {
             case JAVA:
                 command.add("javac");
-                command.add(fileName);
+                command.addAll(units(language, fileName, projectFiles));
                 break;
 
             case TYPESCRIPT:
@@ -37,14 +50,14 @@ public class LanguageExecutor {
                 command.add("gcc");
                 command.add("-o");
                 command.add(baseName);
-                command.add(fileName);
+                command.addAll(units(language, fileName, projectFiles));
                 break;
 
             case CPP:
                 command.add("g++");
                 command.add("-o");
                 command.add(baseName);
-                command.add(fileName);
+                command.addAll(units(language, fileName, projectFiles));
                 break;
 
             case RUST:
@@ -56,7 +69,7 @@ public class LanguageExecutor {
 
             case KOTLIN:
                 command.add("kotlinc");
-                command.add(fileName);
+                command.addAll(units(language, fileName, projectFiles));
                 command.add("-include-runtime");
                 command.add("-d");
                 command.add(baseName + ".jar");
@@ -70,10 +83,11 @@ public class LanguageExecutor {
         return command;
     }
 
-    public List<String> getRunCommand(Language language, File sourceFile, File workDir, long memoryLimitBytes) {
+    public List<String> getRunCommand(Language language, File sourceFile, File workDir,
+                                      Collection<String> projectFiles, long memoryLimitBytes) {
         List<String> command = new ArrayList<>();
-        String fileName = sourceFile.getName();
-        String baseName = fileName.substring(0, fileName.lastIndexOf('.'));
+        String fileName = workDir.toPath().relativize(sourceFile.toPath()).toString();
+        String baseName = sourceFile.getName().substring(0, sourceFile.getName().lastIndexOf('.'));
         
         // Calculate memory limits - ensure minimum viable limits for each runtime
         long memoryLimitMB = Math.max(memoryLimitBytes / (1024 * 1024), 1);
@@ -87,7 +101,7 @@ public class LanguageExecutor {
                 command.add("java");
                 command.add("-Xmx" + jvmMemoryMB + "m");
                 command.add("-Xms" + Math.min(jvmMemoryMB, 4) + "m");
-                command.add(baseName);
+                command.add(getJavaMainClass(sourceFile, baseName));
                 break;
 
             case PYTHON:
@@ -116,7 +130,7 @@ public class LanguageExecutor {
             case GO:
                 command.add("go");
                 command.add("run");
-                command.add(fileName);
+                command.addAll(units(language, fileName, projectFiles));
                 break;
 
             case RUBY:
@@ -160,6 +174,49 @@ public class LanguageExecutor {
         return command;
     }
 
+    /**
+     * The project's source files of the language, entry file first. Headers and other files are
+     * left for the compiler to find through includes.
+     */
+    private List<String> units(Language language, String entryFile, Collection<String> projectFiles) {
+        List<String> units = new ArrayList<>();
+        units.add(entryFile);
+        for (String file : projectFiles) {
+            if (!file.equals(entryFile) && isSourceFile(language, file)) {
+                units.add(file);
+            }
+        }
+        return units;
+    }
+
+    boolean isSourceFile(Language language, String fileName) {
+        if (language == Language.CPP) {
+            return fileName.endsWith(".cpp") || fileName.endsWith(".cc") || fileName.endsWith(".cxx");
+        }
+        return fileName.endsWith(language.getExtension());
+    }
+
+    /**
+     * Whether a project with these files can be built: the swift interpreter only runs a single
+     * file, so Swift projects cannot split their code.
+     */
+    public boolean supportsProject(Language language, Collection<String> projectFiles) {
+        return language != Language.SWIFT
+                || projectFiles.stream().filter(file -> isSourceFile(language, file)).count() <= 1;
+    }
+
+    /**
+     * Qualifies the class name with the source's package, if it declares one.
+     */
+    private String getJavaMainClass(File sourceFile, String baseName) {
+        try {
+            Matcher matcher = JAVA_PACKAGE.matcher(Files.readString(sourceFile.toPath()));
+            return matcher.find() ? matcher.group(1) + "." + baseName : baseName;
+        } catch (IOException e) {
+            return baseName;
+        }
+    }
+
     public String getDefaultFileName(Language language) {
         switch (language) {
             case JAVA:
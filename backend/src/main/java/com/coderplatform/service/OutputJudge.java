@@ -0,0 +1,245 @@
+package com.coderplatform.service;
+
+import com.coderplatform.model.CodeExecutionRequest;
+import com.coderplatform.model.JudgeMode;
+import com.coderplatform.model.JudgeVerdict;
+
+import java.nio.CharBuffer;
+
+/**
+ * Compares a run's stdout against the expected output as it is read, so the run can be killed
+ * at the first difference instead of after it has printed everything. Only a short preview of
+ * the actual output is kept.
+ *
+ * Fed by the stdout reader thread and read by the thread collecting the run. Once {@link #seal()}
+ * has been called later output is ignored, so a reader that outlives the run, for example behind
+ * a grandchild holding the pipe open, cannot change the verdict after it has been read.
+ */
+class OutputJudge {
+
+    private static final int EXCERPT_LENGTH = 32;
+    private static final int PREVIEW_LENGTH = 1024;
+    // Numbers may be printed with more digits than expected, but not without bound
+    private static final int FLOAT_TOKEN_SLACK = 64;
+
+    private final JudgeMode mode;
+    private final double tolerance;
+    private final long outputLimit;     // characters the run may print, whether they count or not
+    private final String expected;      // EXACT: the expected text without its trailing newline
+    private final String[] tokens;      // WHITESPACE and FLOAT: the expected tokens
+
+    private final StringBuilder preview = new StringBuilder();
+    private long consumed;
+    private long line = 1;
+    private long column = 1;
+    private JudgeVerdict mismatch;
+    private boolean sealed;
+
+    // EXACT state
+    private int position;
+    private boolean trailingNewlineSeen;
+
+    // Token state
+    private final StringBuilder token = new StringBuilder();
+    private int tokenIndex;
+    private long tokenLine;
+    private long tokenColumn;
+
+    private OutputJudge(JudgeMode mode, double tolerance, String expectedOutput, long outputLimit) {
+        this.mode = mode;
+        this.tolerance = tolerance;
+        this.outputLimit = outputLimit;
+        if (mode == JudgeMode.EXACT) {
+            this.expected = expectedOutput.endsWith("\n")
+                    ? expectedOutput.substring(0, expectedOutput.length() - 1) : expectedOutput;
+            this.tokens = null;
+        } else {
+            String trimmed = expectedOutput.strip();
+            this.expected = null;
+            this.tokens = trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+        }
+    }
+
+    /**
+     * Returns a judge for the request, or null when it has no expected output. Output past the
+     * limit fails the run even where the mode ignores it, such as endless whitespace.
+     */
+    static OutputJudge forRequest(CodeExecutionRequest request, long outputLimit) {
+        if (request.getExpectedOutput() == null) {
+            return null;
+        }
+        JudgeMode mode = request.getJudgeMode() == null ? JudgeMode.EXACT : request.getJudgeMode();
+        return new OutputJudge(mode, request.getFloatTolerance(), request.getExpectedOutput(), outputLimit);
+    }
+
+    /**
+     * Feeds the next chunk of output. Returns false once the output is known to be wrong; the
+     * caller should stop the run then.
+     */
+    synchronized boolean accept(char[] buffer, int offset, int length) {
+        if (sealed) {
+            return false;
+        }
+        for (int i = offset; i < offset + length && mismatch == null; i++) {
+            char c = buffer[i];
+            if (++consumed > outputLimit) {
+                mismatch = JudgeVerdict.outputLimitExceeded(outputLimit, line, column);
+                break;
+            }
+            if (preview.length() < PREVIEW_LENGTH) {
+                preview.append(c);
+            }
+            if (mode == JudgeMode.EXACT) {
+                acceptExact(c, buffer, i, offset + length);
+            } else {
+                acceptToken(c);
+            }
+            if (c == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        return mismatch == null;
+    }
+
+    /**
+     * Stops taking output; whatever arrives afterwards is ignored.
+     */
+    synchronized void seal() {
+        sealed = true;
+    }
+
+    synchronized boolean isMismatched() {
+        return mismatch != null;
+    }
+
+    /**
+     * The verdict once all output has been fed: the first difference, or whether the output
+     * ended where the expected output does.
+     */
+    synchronized JudgeVerdict verdict() {
+        if (mismatch != null) {
+            return mismatch;
+        }
+        if (mode == JudgeMode.EXACT) {
+            if (position < expected.length()) {
+                return JudgeVerdict.wrongAnswer("Output ended early", line, column, excerpt(expected, position), "");
+            }
+            return JudgeVerdict.accepted();
+        }
+        if (token.length() > 0) {
+            completeToken();
+            if (mismatch != null) {
+                return mismatch;
+            }
+        }
+        if (tokenIndex < tokens.length) {
+            return JudgeVerdict.wrongAnswer("Output ended early", line, column, tokens[tokenIndex], "");
+        }
+        return JudgeVerdict.accepted();
+    }
+
+    synchronized String getPreview() {
+        return preview.toString();
+    }
+
+    private void acceptExact(char c, char[] buffer, int index, int end) {
+        if (position < expected.length()) {
+            if (c != expected.charAt(position)) {
+                mismatch = JudgeVerdict.wrongAnswer("Output differs", line, column,
+                        excerpt(expected, position), excerpt(buffer, index, end));
+            }
+            position++;
+        } else if (c == '\n' && !trailingNewlineSeen) {
+            trailingNewlineSeen = true;
+        } else {
+            mismatch = JudgeVerdict.wrongAnswer("Extra output", line, column, "", excerpt(buffer, index, end));
+        }
+    }
+
+    private void acceptToken(char c) {
+        if (Character.isWhitespace(c)) {
+            if (token.length() > 0) {
+                completeToken();
+            }
+            return;
+        }
+        if (token.length() == 0) {
+            tokenLine = line;
+            tokenColumn = column;
+            if (tokenIndex >= tokens.length) {
+                mismatch = JudgeVerdict.wrongAnswer("Extra output", line, column, "", String.valueOf(c));
+                return;
+            }
+        }
+        token.append(c);
+
+        // Catch a wrong token before it ends, so one huge token cannot run up the output budget
+        String wanted = tokens[tokenIndex];
+        if (mode == JudgeMode.WHITESPACE) {
+            int at = token.length() - 1;
+            if (at >= wanted.length() || wanted.charAt(at) != c) {
+                tokenMismatch();
+            }
+        } else if (token.length() > wanted.length() + FLOAT_TOKEN_SLACK) {
+            tokenMismatch();
+        }
+    }
+
+    private void completeToken() {
+        String wanted = tokens[tokenIndex];
+        String actual = token.toString();
+        boolean equal = mode == JudgeMode.FLOAT ? numbersMatch(wanted, actual) : wanted.equals(actual);
+        if (!equal) {
+            tokenMismatch();
+            return;
+        }
+        tokenIndex++;
+        token.setLength(0);
+    }
+
+    private void tokenMismatch() {
+        mismatch = JudgeVerdict.wrongAnswer("Output differs", tokenLine, tokenColumn,
+                excerpt(tokens[tokenIndex], 0), excerpt(token, 0));
+    }
+
+    private boolean numbersMatch(String wanted, String actual) {
+        if (wanted.equals(actual)) {
+            return true;
+        }
+        double expectedValue;
+        double actualValue;
+        try {
+            expectedValue = Double.parseDouble(wanted);
+            actualValue = Double.parseDouble(actual);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (Double.isNaN(expectedValue) || Double.isNaN(actualValue)) {
+            return false;
+        }
+        double difference = Math.abs(expectedValue - actualValue);
+        return difference <= tolerance || difference <= tolerance * Math.abs(expectedValue);
+    }
+
+    private static String excerpt(CharSequence text, int from) {
+        return text.subSequence(from, excerptEnd(text, from, text.length())).toString();
+    }
+
+    private static String excerpt(char[] buffer, int from, int end) {
+        return new String(buffer, from, excerptEnd(CharBuffer.wrap(buffer), from, end) - from);
+    }
+
+    // Excerpts stop at the end of the line, but always show at least the differing character
+    private static int excerptEnd(CharSequence text, int from, int end) {
+        int limit = Math.min(end, from + EXCERPT_LENGTH);
+        for (int i = from; i < limit; i++) {
+            if (text.charAt(i) == '\n') {
+                return Math.max(i, from + 1);
+            }
+        }
+        return limit;
+    }
+}
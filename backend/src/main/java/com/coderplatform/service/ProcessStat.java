@@ -0,0 +1,86 @@
+package com.coderplatform.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The fields of /proc/&lt;pid&gt;/stat needed to account for the CPU time of a REPL session's
+ * processes. Times are in milliseconds; the kernel reports them in USER_HZ ticks, which is 100 on Linux.
+ */
+final class ProcessStat {
+
+    private static final long MS_PER_TICK = 10;
+    private static final Path PROC = Path.of("/proc");
+
+    private final long pid;
+    private final long parentPid;
+    private final long sessionId;
+    private final long ownCpuMs;         // utime + stime
+    private final long reapedCpuMs;      // cutime + cstime: children it has waited for
+
+    private ProcessStat(long pid, long parentPid, long sessionId, long ownCpuMs, long reapedCpuMs) {
+        this.pid = pid;
+        this.parentPid = parentPid;
+        this.sessionId = sessionId;
+        this.ownCpuMs = ownCpuMs;
+        this.reapedCpuMs = reapedCpuMs;
+    }
+
+    /**
+     * Every process that can be read right now. Processes that exit during the scan are skipped.
+     */
+    static List<ProcessStat> readAll() {
+        List<ProcessStat> stats = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(PROC, "[0-9]*")) {
+            for (Path entry : entries) {
+                try {
+                    stats.add(parse(Long.parseLong(entry.getFileName().toString()),
+                            Files.readString(entry.resolve("stat"))));
+                } catch (IOException | RuntimeException e) {
+                    // Gone, or not a process
+                }
+            }
+        } catch (IOException e) {
+            // No procfs: nothing to account for
+        }
+        return stats;
+    }
+
+    /**
+     * Parses one stat line. The command name is in parentheses and may itself contain spaces
+     * and parentheses, so fields are counted from the last closing one.
+     */
+    static ProcessStat parse(long pid, String line) {
+        String[] fields = line.substring(line.lastIndexOf(')') + 2).trim().split(" ");
+        // fields[0] is field 3 (state) of proc(5)
+        return new ProcessStat(pid,
+                Long.parseLong(fields[1]),
+                Long.parseLong(fields[3]),
+                (Long.parseLong(fields[11]) + Long.parseLong(fields[12])) * MS_PER_TICK,
+                (Long.parseLong(fields[13]) + Long.parseLong(fields[14])) * MS_PER_TICK);
+    }
+
+    long getPid() {
+        return pid;
+    }
+
+    long getParentPid() {
+        return parentPid;
+    }
+
+    long getSessionId() {
+        return sessionId;
+    }
+
+    long getOwnCpuMs() {
+        return ownCpuMs;
+    }
+
+    long getReapedCpuMs() {
+        return reapedCpuMs;
+    }
+}
@@ -0,0 +1,314 @@
+package com.coderplatform.service;
+
+import com.coderplatform.model.CodeExecutionResponse;
+import com.coderplatform.model.Language;
+import com.coderplatform.model.ReplEvalResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One live interpreter and work dir. Snippets are written to the driver's stdin as
+ * {@code <byteLength>\n<snippet>} and answered by a single {@code <token> <json>} line on stdout.
+ * Evaluations are serialized; a snippet that overruns its timeout kills the whole session.
+ */
+class ReplSession {
+
+    // The driver's own stderr, kept for crashes that happen outside a snippet
+    static final String DRIVER_LOG = ".repl.log";
+
+    // Room for the reply's status, result and JSON syntax on top of its captured output
+    private static final int REPLY_OVERHEAD = 65536;
+
+    private final String id;
+    private final Language language;
+    private final Process process;
+    private final File workDir;
+    private final String token;
+    private final BufferedReader reader;
+    private final OutputStream writer;
+
+    // Evals in progress or about to start, guarded by stateLock so eviction cannot slip in
+    // between looking up the session and evaluating in it
+    private final Object stateLock = new Object();
+    private int users;
+    private boolean evicted;
+    private long lastUsed = System.currentTimeMillis();
+    private volatile boolean cpuLimitExceeded;
+
+    // CPU accounting, only touched by the manager's scheduler thread
+    private Map<Long, ProcessStat> seen = new HashMap<>();
+    private long exitedCpuMs;
+    private long cpuTimeMs;
+
+    ReplSession(String id, Language language, Process process, File workDir, String token) {
+        this.id = id;
+        this.language = language;
+        this.process = process;
+        this.workDir = workDir;
+        this.token = token;
+        this.reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        this.writer = process.getOutputStream();
+    }
+
+    String getId() {
+        return id;
+    }
+
+    Language getLanguage() {
+        return language;
+    }
+
+    File getWorkDir() {
+        return workDir;
+    }
+
+    /**
+     * Claims the session for an eval. Returns false once it has been chosen for eviction.
+     */
+    boolean enter() {
+        synchronized (stateLock) {
+            if (evicted) {
+                return false;
+            }
+            users++;
+            lastUsed = System.currentTimeMillis();
+            return true;
+        }
+    }
+
+    void exit() {
+        synchronized (stateLock) {
+            users--;
+            lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Marks the session for eviction if no eval has claimed it since the cutoff.
+     */
+    boolean evictIfIdleSince(long cutoff) {
+        synchronized (stateLock) {
+            if (users == 0 && lastUsed < cutoff) {
+                evicted = true;
+            }
+            return evicted;
+        }
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /**
+     * Updates and returns the CPU time used by the session's processes: the interpreter and
+     * everything it started, found by the session id the driver was started in, so processes
+     * orphaned by their parent still count. A process that has exited is covered by the
+     * reaped-children time of the session process that collected it, or else by what it had
+     * used when last seen; only one that exits between two checks and is collected from
+     * outside the session goes uncounted. Called from the manager's single scheduler thread.
+     */
+    long updateCpuTime(List<ProcessStat> processes) {
+        long sessionId = process.pid();
+        Map<Long, ProcessStat> members = new HashMap<>();
+        for (ProcessStat stat : processes) {
+            if (stat.getSessionId() == sessionId) {
+                members.put(stat.getPid(), stat);
+            }
+        }
+        for (ProcessStat gone : seen.values()) {
+            if (!members.containsKey(gone.getPid()) && !seen.containsKey(gone.getParentPid())) {
+                exitedCpuMs += gone.getOwnCpuMs() + gone.getReapedCpuMs();
+            }
+        }
+        seen = members;
+
+        long total = exitedCpuMs;
+        for (ProcessStat member : members.values()) {
+            total += member.getOwnCpuMs() + member.getReapedCpuMs();
+        }
+        // Time in flight between a dying process and its parent must not make the total go back
+        cpuTimeMs = Math.max(cpuTimeMs, total);
+        return cpuTimeMs;
+    }
+
+    /**
+     * Kills the session for going over its CPU limit; an eval in progress reports it.
+     */
+    void killForCpuLimit() {
+        cpuLimitExceeded = true;
+        close();
+    }
+
+    synchronized ReplEvalResponse eval(String code, long timeoutMs, long maxOutputSize,
+                                       ScheduledExecutorService scheduler, ObjectMapper objectMapper) {
+        long startTime = System.nanoTime();
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> killer = scheduler.schedule(() -> {
+            timedOut.set(true);
+            ExecutionHandle.destroyTree(process);
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        try {
+            byte[] source = code.getBytes(StandardCharsets.UTF_8);
+            writer.write((source.length + "\n").getBytes(StandardCharsets.UTF_8));
+            writer.write(source);
+            writer.flush();
+
+            // Output written straight to the driver's fd 1 arrives ahead of the reply line
+            StringBuilder stray = new StringBuilder();
+            String line = readReply(stray, maxOutputSize);
+            long executionTime = (System.nanoTime() - startTime) / 1_000_000;
+
+            if (line == null) {
+                return ended(stray.toString(), executionTime, timedOut.get());
+            }
+            JsonNode reply = objectMapper.readTree(line);
+            String output = stray + reply.path("stdout").asText("");
+            String error = reply.path("stderr").asText("");
+            String result = reply.path("result").isNull() ? null : reply.path("result").asText();
+            String status = reply.path("status").asText();
+            if ("exit".equals(status)) {
+                return new ReplEvalResponse(output, error, result, executionTime,
+                        CodeExecutionResponse.Status.SUCCESS, true);
+            }
+            if ("error".equals(status)) {
+                CodeExecutionResponse.Status errorStatus = isMemoryError(error)
+                        ? CodeExecutionResponse.Status.MEMORY_EXCEEDED : CodeExecutionResponse.Status.RUNTIME_ERROR;
+                return new ReplEvalResponse(output, error, result, executionTime, errorStatus, false);
+            }
+            return new ReplEvalResponse(output, error, result, executionTime, CodeExecutionResponse.Status.SUCCESS, false);
+        } catch (IOException e) {
+            long executionTime = (System.nanoTime() - startTime) / 1_000_000;
+            return ended("", executionTime, timedOut.get());
+        } finally {
+            killer.cancel(false);
+        }
+    }
+
+    void close() {
+        ExecutionHandle.destroyTree(process);
+        // Orphans are no longer descendants but stay in the driver's session
+        long sessionId = process.pid();
+        for (ProcessStat stat : ProcessStat.readAll()) {
+            if (stat.getSessionId() == sessionId) {
+                ProcessHandle.of(stat.getPid()).ifPresent(ProcessHandle::destroyForcibly);
+            }
+        }
+    }
+
+    /**
+     * Reads up to and including the reply line and returns its JSON, or null if the driver's
+     * stdout ends first. Stray output before it is kept up to the output limit and otherwise
+     * dropped, and the reply is found even when stray output left a line unfinished, so neither
+     * a long line nor a missing newline can pile up in memory or hide the reply.
+     */
+    private String readReply(StringBuilder stray, long maxOutputSize) throws IOException {
+        String marker = token + " ";
+        int[] fallback = fallbackTable(marker);
+        int matched = 0;
+        int c;
+        while ((c = reader.read()) != -1) {
+            while (matched > 0 && c != marker.charAt(matched)) {
+                // The start of a partial match turned out to be output
+                int kept = fallback[matched - 1];
+                appendStray(stray, marker, matched - kept, maxOutputSize);
+                matched = kept;
+            }
+            if (c == marker.charAt(matched)) {
+                if (++matched == marker.length()) {
+                    return readReplyLine(maxOutputSize);
+                }
+            } else if (stray.length() < maxOutputSize) {
+                stray.append((char) c);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The JSON after the reply marker. The driver caps stdout, stderr and the result at the
+     * output limit, and JSON escaping can at most multiply them by six.
+     */
+    private String readReplyLine(long maxOutputSize) throws IOException {
+        long limit = 18 * maxOutputSize + REPLY_OVERHEAD;
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (line.length() >= limit) {
+                throw new IOException("REPL reply exceeds " + limit + " characters");
+            }
+            line.append((char) c);
+        }
+        return c == -1 ? null : line.toString();
+    }
+
+    private static void appendStray(StringBuilder stray, String text, int length, long maxOutputSize) {
+        int room = (int) Math.max(Math.min(length, maxOutputSize - stray.length()), 0);
+        stray.append(text, 0, room);
+    }
+
+    // KMP failure function: for each prefix of the marker, the longest proper prefix that is also its suffix
+    private static int[] fallbackTable(String marker) {
+        int[] table = new int[marker.length()];
+        int length = 0;
+        for (int i = 1; i < marker.length(); i++) {
+            while (length > 0 && marker.charAt(i) != marker.charAt(length)) {
+                length = table[length - 1];
+            }
+            if (marker.charAt(i) == marker.charAt(length)) {
+                length++;
+            }
+            table[i] = length;
+        }
+        return table;
+    }
+
+    /**
+     * The interpreter went away mid-snippet: killed on timeout or for its CPU use, or crashed
+     * (process.exit, a native abort, the memory limit).
+     */
+    private ReplEvalResponse ended(String output, long executionTime, boolean timedOut) {
+        close();
+        if (timedOut) {
+            return new ReplEvalResponse(output, "Execution timed out; the session was closed",
+                    null, executionTime, CodeExecutionResponse.Status.TIMEOUT, true);
+        }
+        if (cpuLimitExceeded) {
+            return new ReplEvalResponse(output, "CPU time limit exceeded; the session was closed",
+                    null, executionTime, CodeExecutionResponse.Status.TIMEOUT, true);
+        }
+        String log = readDriverLog();
+        CodeExecutionResponse.Status status = isMemoryError(log)
+                ? CodeExecutionResponse.Status.MEMORY_EXCEEDED : CodeExecutionResponse.Status.RUNTIME_ERROR;
+        return new ReplEvalResponse(output, log.isEmpty() ? "The session ended unexpectedly" : log,
+                null, executionTime, status, true);
+    }
+
+    private String readDriverLog() {
+        try {
+            process.waitFor(500, TimeUnit.MILLISECONDS);
+            return Files.readString(new File(workDir, DRIVER_LOG).toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "";
+        }
+    }
+
+    private static boolean isMemoryError(String error) {
+        return error.contains("MemoryError")
+                || error.contains("heap out of memory")
+                || error.contains("Cannot allocate memory");
+    }
+}
@@ -0,0 +1,224 @@
+package com.coderplatform.service;
+
+import com.coderplatform.config.ExecutionConfig;
+import com.coderplatform.model.Language;
+import com.coderplatform.model.ReplEvalResponse;
+import com.coderplatform.model.ReplSessionInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps one interpreter process and work dir alive per REPL session, so a notebook cell only
+ * pays for evaluating its snippet. Sessions are closed after {@code execution.repl-idle-timeout}
+ * without an eval, or once their processes have used {@code execution.repl-cpu-limit} of CPU
+ * time, and at most {@code execution.repl-max-sessions} are live at once.
+ * Started by the first REPL request rather than at startup.
+ */
+@Lazy
+@Component
+public class ReplSessionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplSessionManager.class);
+
+    private static final long MAX_SWEEP_INTERVAL_MS = 10000;
+    private static final long CPU_CHECK_INTERVAL_MS = 1000;
+
+    private final ExecutionConfig config;
+    private final ObjectMapper objectMapper;
+    private final Map<String, ReplSession> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "repl-sessions");
+        t.setDaemon(true);
+        return t;
+    });
+    private Semaphore slots;
+    private Path sessionRoot;
+
+    public ReplSessionManager(ExecutionConfig config, ObjectMapper objectMapper) {
+        this.config = config;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        slots = new Semaphore(config.getReplMaxSessions());
+        sessionRoot = Path.of(config.getTempDirectory(), "repl");
+        Files.createDirectories(sessionRoot);
+        for (Language language : Language.values()) {
+            String script = getScriptName(language);
+            if (script != null) {
+                extractScript(script);
+            }
+        }
+        long interval = Math.max(Math.min(config.getReplIdleTimeout() / 2, MAX_SWEEP_INTERVAL_MS), 100);
+        scheduler.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::enforceCpuLimit, CPU_CHECK_INTERVAL_MS, CPU_CHECK_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        new ArrayList<>(sessions.keySet()).forEach(this::close);
+    }
+
+    /**
+     * Starts an interpreter for a new session, or returns null when the session cap is reached.
+     * The interpreter finishes starting up in the background while the client sends its first cell.
+     */
+    public ReplSessionInfo create(Language language) throws IOException {
+        String script = getScriptName(language);
+        if (script == null) {
+            throw new IllegalArgumentException("REPL sessions are not available for " + language.getDisplayName());
+        }
+
+        if (!slots.tryAcquire()) {
+            return null;
+        }
+        String id = UUID.randomUUID().toString();
+        try {
+            ReplSession session = startSession(id, language, script);
+            sessions.put(id, session);
+            logger.info("Started {} REPL session {} ({} live)", language, id, sessions.size());
+            return new ReplSessionInfo(id, language.getId(), config.getReplIdleTimeout());
+        } catch (IOException | RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Evaluates a snippet in the session, or returns null when the session does not exist.
+     */
+    public ReplEvalResponse eval(String id, String code) {
+        ReplSession session = sessions.get(id);
+        if (session == null || !session.enter()) {
+            return null;
+        }
+        ReplEvalResponse response;
+        try {
+            response = session.eval(code, config.getTimeout(), config.getMaxOutputSize(), scheduler, objectMapper);
+        } finally {
+            session.exit();
+        }
+        if (response.isSessionClosed()) {
+            close(id);
+        }
+        return response;
+    }
+
+    public boolean close(String id) {
+        ReplSession session = sessions.get(id);
+        if (session == null || !sessions.remove(id, session)) {
+            return false;
+        }
+        session.close();
+        Directories.delete(session.getWorkDir());
+        slots.release();
+        logger.info("Closed {} REPL session {}", session.getLanguage(), id);
+        return true;
+    }
+
+    private ReplSession startSession(String id, Language language, String script) throws IOException {
+        Path scriptPath = sessionRoot.resolve(script);
+        File workDir = Files.createDirectory(sessionRoot.resolve(id)).toFile();
+        String token = UUID.randomUUID().toString();
+
+        // RLIMIT_CPU makes the kernel kill the interpreter itself shortly after the limit; the CPU
+        // check also covers the processes it starts, and closes the session first. setsid gives
+        // the driver a session of its own without forking, as a JVM child leads no process group,
+        // so everything the driver starts has its pid as session id
+        long cpuLimitSeconds = (config.getReplCpuLimit() + CPU_CHECK_INTERVAL_MS) / 1000 + 1;
+        List<String> command = new ArrayList<>();
+        command.add("/bin/sh");
+        command.add("-c");
+        command.add("ulimit -t " + cpuLimitSeconds + " && exec setsid \"$@\"");
+        command.add("sh");
+        command.add(language.getRunCommand());
+        if (language == Language.JAVASCRIPT) {
+            // Node reserves far more address space than it uses, so cap its heap instead of RLIMIT_AS
+            command.add("--max-old-space-size=" + Math.max(config.getMemoryLimit() / (1024 * 1024), 4));
+        }
+        command.add(scriptPath.toString());
+        command.add(token);
+        command.add(String.valueOf(config.getMaxOutputSize()));
+        command.add(String.valueOf(config.getMemoryLimit()));
+
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.directory(workDir);
+        pb.redirectError(new File(workDir, ReplSession.DRIVER_LOG));
+        pb.environment().put("LANG", "en_US.UTF-8");
+        try {
+            return new ReplSession(id, language, pb.start(), workDir, token);
+        } catch (IOException e) {
+            Directories.delete(workDir);
+            throw e;
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - config.getReplIdleTimeout();
+        for (ReplSession session : sessions.values()) {
+            if (!session.isAlive() || session.evictIfIdleSince(cutoff)) {
+                logger.debug("Evicting {} REPL session {}", session.getLanguage(), session.getId());
+                close(session.getId());
+            }
+        }
+    }
+
+    /**
+     * Kills sessions whose processes have used up their CPU time, whether in an eval or in work
+     * left running between evals (threads, timers, background processes).
+     */
+    private void enforceCpuLimit() {
+        List<ProcessStat> processes = ProcessStat.readAll();
+        for (ReplSession session : sessions.values()) {
+            if (session.isAlive() && session.updateCpuTime(processes) > config.getReplCpuLimit()) {
+                logger.info("{} REPL session {} exceeded its CPU limit", session.getLanguage(), session.getId());
+                session.killForCpuLimit();
+                close(session.getId());
+            }
+        }
+    }
+
+    private void extractScript(String script) throws IOException {
+        Path target = sessionRoot.resolve(script);
+        try (InputStream in = getClass().getResourceAsStream("/repl/" + script)) {
+            if (in == null) {
+                throw new IOException("Missing REPL script " + script);
+            }
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String getScriptName(Language language) {
+        switch (language) {
+            case PYTHON:
+                return "python_repl.py";
+            case JAVASCRIPT:
+                return "node_repl.js";
+            case RUBY:
+                return "ruby_repl.rb";
+            default:
+                return null;
+        }
+    }
+}
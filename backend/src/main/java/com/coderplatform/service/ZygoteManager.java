@@ -0,0 +1,136 @@
+package com.coderplatform.service;
+
+import com.coderplatform.config.ExecutionConfig;
+import com.coderplatform.model.Language;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns the interpreter zygotes enabled through {@code execution.zygote-languages}.
+ * Languages without a running zygote fall back to a regular process spawn.
+ */
+@Component
+public class ZygoteManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZygoteManager.class);
+
+    private final ExecutionConfig config;
+    private final Map<Language, InterpreterZygote> zygotes = new EnumMap<>(Language.class);
+    private Path zygoteDir;
+
+    public ZygoteManager(ExecutionConfig config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (config.getZygoteLanguages().isEmpty()) {
+            return;
+        }
+        // Scripts and sockets live outside the temp directory that work dirs share, in a directory
+        // created afresh with an unpredictable name and owner-only access, so submissions can
+        // neither replace a script nor connect to a zygote socket
+        try {
+            zygoteDir = Files.createTempDirectory("coder-zygote-",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } catch (IOException e) {
+            logger.error("Failed to create the zygote directory, using regular spawns", e);
+            return;
+        }
+        for (String id : config.getZygoteLanguages()) {
+            try {
+                Language language = Language.fromId(id);
+                String script = getScriptName(language);
+                if (script == null) {
+                    logger.warn("Zygote mode is not available for {}, ignoring", language);
+                    continue;
+                }
+                Path scriptPath = extractScript(script, zygoteDir);
+                Path socketPath = zygoteDir.resolve(language.getId() + ".sock");
+                List<String> command = List.of(language.getRunCommand(), scriptPath.toString(), socketPath.toString());
+
+                InterpreterZygote zygote = new InterpreterZygote(language, command, socketPath);
+                zygote.start();
+                zygotes.put(language, zygote);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Unknown language in zygote-languages: {}", id);
+            } catch (IOException e) {
+                logger.error("Failed to start zygote for {}, using regular spawns", id, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        zygotes.values().forEach(InterpreterZygote::stop);
+        if (zygoteDir != null) {
+            Directories.delete(zygoteDir.toFile());
+        }
+    }
+
+    public boolean isEnabled(Language language) {
+        return zygotes.containsKey(language);
+    }
+
+    /**
+     * Forks the submission from the language's zygote, or returns null when no zygote is
+     * available or the fork fails, so the caller can spawn the interpreter itself. The child is
+     * pinned to the given cores when a list is passed.
+     */
+    public Process spawn(Language language, File sourceFile, File workDir, List<Integer> cpus,
+                         ExecutionHandle handle) {
+        InterpreterZygote zygote = zygotes.get(language);
+        if (zygote == null) {
+            return null;
+        }
+        try {
+            return zygote.spawn(sourceFile, workDir, config.getMemoryLimit(),
+                    handle.timeoutMs(config.getTimeout()), cpus, handle);
+        } catch (IOException e) {
+            logger.warn("{} zygote spawn failed, falling back to a regular spawn: {}", language, e.getMessage());
+            // A child that failed on its own leaves the zygote usable
+            if (!zygote.isAlive()) {
+                zygote.stop();
+            }
+            return null;
+        }
+    }
+
+    private Path extractScript(String script, Path zygoteDir) throws IOException {
+        Path target = zygoteDir.resolve(script);
+        try (InputStream in = getClass().getResourceAsStream("/zygote/" + script)) {
+            if (in == null) {
+                throw new IOException("Missing zygote script " + script);
+            }
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return target;
+    }
+
+    private String getScriptName(Language language) {
+        switch (language) {
+            case PYTHON:
+                return "python_zygote.py";
+            case RUBY:
+                return "ruby_zygote.rb";
+            case PERL:
+                return "perl_zygote.pl";
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.coderplatform.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * A submission forked from an interpreter zygote, exposed as a {@link Process} so it can be
+ * driven by the same capture and timeout logic as a regular child process.
+ *
+ * The zygote creates .stdin/.stdout/.stderr FIFOs in the work dir before replying with the
+ * child's pid; they are opened here in the same order the child opens them.
+ */
+class ZygoteProcess extends Process {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZygoteProcess.class);
+
+    private static final long OPEN_POLL_INTERVAL_MS = 20;
+    private static final String[] FIFOS = {".stdin", ".stdout", ".stderr"};
+
+    private final SocketChannel control;
+    private final long pid;
+    private final OutputStream stdin;
+    private final InputStream stdout;
+    private final InputStream stderr;
+    private final CompletableFuture<Integer> exit = new CompletableFuture<>();
+
+    private ZygoteProcess(SocketChannel control, BufferedReader controlReader, long pid,
+                          OutputStream stdin, InputStream stdout, InputStream stderr) {
+        this.control = control;
+        this.pid = pid;
+        this.stdin = stdin;
+        this.stdout = stdout;
+        this.stderr = stderr;
+
+        Thread waiter = new Thread(() -> awaitExit(controlReader), "zygote-exit-" + pid);
+        waiter.setDaemon(true);
+        waiter.start();
+    }
+
+    /**
+     * Opens our ends of the child's FIFOs. Each open blocks until the child opens the other end,
+     * which it never does if it dies first, so the opens run on a helper thread while this one
+     * watches for the child exiting, the timeout and a cancel. Any of those kills the child and
+     * fails the spawn.
+     */
+    static ZygoteProcess open(SocketChannel control, BufferedReader controlReader, long pid, File workDir,
+                              long timeoutMs, ExecutionHandle handle) throws IOException {
+        File[] fifos = new File[FIFOS.length];
+        for (int i = 0; i < FIFOS.length; i++) {
+            fifos[i] = new File(workDir, FIFOS[i]);
+        }
+        Closeable[] ends = new Closeable[FIFOS.length];
+        CompletableFuture<Void> opened = new CompletableFuture<>();
+        Thread opener = new Thread(() -> {
+            try {
+                ends[0] = new FileOutputStream(fifos[0]);
+                ends[1] = new FileInputStream(fifos[1]);
+                ends[2] = new FileInputStream(fifos[2]);
+                opened.complete(null);
+            } catch (IOException e) {
+                opened.completeExceptionally(e);
+            }
+        }, "zygote-open-" + pid);
+        opener.setDaemon(true);
+        opener.start();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        String failure = null;
+        while (failure == null) {
+            try {
+                opened.get(OPEN_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                return new ZygoteProcess(control, controlReader, pid,
+                        (OutputStream) ends[0], (InputStream) ends[1], (InputStream) ends[2]);
+            } catch (TimeoutException e) {
+                if (!ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false)) {
+                    failure = "exited before opening its stdio";
+                } else if (handle.isCancelled() || handle.isExpired()) {
+                    failure = "was abandoned before opening its stdio";
+                } else if (System.nanoTime() > deadline) {
+                    failure = "did not open its stdio within " + timeoutMs + "ms";
+                }
+            } catch (ExecutionException e) {
+                failure = "stdio could not be opened: " + e.getCause().getMessage();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = "was interrupted before opening its stdio";
+            }
+        }
+
+        ProcessHandle.of(pid).ifPresent(child -> {
+            child.descendants().forEach(ProcessHandle::destroyForcibly);
+            child.destroyForcibly();
+        });
+        // Release the blocked open by opening the other end; O_RDWR never blocks on a FIFO
+        for (File fifo : fifos) {
+            try {
+                // Opening is enough
+                new RandomAccessFile(fifo, "rw").close();
+            } catch (IOException ignored) {
+                // Already gone
+            }
+        }
+        try {
+            opener.join(OPEN_POLL_INTERVAL_MS * 10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Closeable end : ends) {
+            if (end != null) {
+                try {
+                    end.close();
+                } catch (IOException ignored) {
+                    // Nothing left to release
+                }
+            }
+        }
+        throw new IOException("Zygote child " + pid + " " + failure);
+    }
+
+    private void awaitExit(BufferedReader controlReader) {
+        try {
+            String line = controlReader.readLine();
+            if (line != null && line.startsWith("exit ")) {
+                exit.complete(Integer.parseInt(line.substring(5).trim()));
+            } else {
+                logger.warn("Zygote handler for pid {} closed without an exit status", pid);
+                exit.complete(255);
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Lost zygote control channel for pid {}", pid, e);
+            exit.complete(255);
+        } finally {
+            try {
+                control.close();
+            } catch (IOException ignored) {
+                // Nothing left to release
+            }
+        }
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return stdin;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return stdout;
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+        return stderr;
+    }
+
+    @Override
+    public int waitFor() throws InterruptedException {
+        try {
+            return exit.get();
+        } catch (ExecutionException e) {
+            return 255;
+        }
+    }
+
+    @Override
+    public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            exit.get(timeout, unit);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public int exitValue() {
+        if (!exit.isDone()) {
+            throw new IllegalThreadStateException("process hasn't exited");
+        }
+        return exit.join();
+    }
+
+    @Override
+    public void destroy() {
+        if (exit.isDone()) {
+            return;
+        }
+        // Not our child, so kill through the process handle; descendants first so none are orphaned
+        ProcessHandle.of(pid).ifPresent(handle -> {
+            handle.descendants().forEach(ProcessHandle::destroyForcibly);
+            handle.destroyForcibly();
+        });
+    }
+
+    @Override
+    public Process destroyForcibly() {
+        destroy();
+        return this;
+    }
+
+    @Override
+    public boolean isAlive() {
+        return !exit.isDone();
+    }
+
+    @Override
+    public long pid() {
+        return pid;
+    }
+
+    @Override
+    public Stream<ProcessHandle> children() {
+        return ProcessHandle.of(pid).map(ProcessHandle::children).orElseGet(Stream::empty);
+    }
+
+    @Override
+    public Stream<ProcessHandle> descendants() {
+        return ProcessHandle.of(pid).map(ProcessHandle::descendants).orElseGet(Stream::empty);
+    }
+}
@@ -0,0 +1,107 @@
+// Node REPL driver: keeps one vm context alive across snippets for a session.
+// Speaks the same protocol as python_repl.py (argv: <token> <maxOutputBytes> <memoryLimitBytes>).
+// Output is captured by swapping process.stdout/stderr.write while a snippet runs; direct fd
+// writes still reach the backend, which treats any line before the reply as stdout.
+'use strict';
+const childProcess = require('child_process');
+const fs = require('fs');
+const util = require('util');
+const vm = require('vm');
+
+const TOKEN = process.argv[2];
+const MAX_OUTPUT = parseInt(process.argv[3], 10);
+
+// Node has no setrlimit, so prlimit applies RLIMIT_AS to the driver once it is up; processes a
+// cell starts inherit it, as they do from the python and ruby drivers. The heap is capped by
+// --max-old-space-size, and the address space node reserved at startup is left out of the limit.
+function limitMemory(memoryLimit) {
+  if (!(memoryLimit > 0)) return;
+  const pageSize = parseInt(childProcess.execFileSync('getconf', ['PAGESIZE']).toString(), 10);
+  const baseline = parseInt(fs.readFileSync('/proc/self/statm', 'utf8').split(' ')[0], 10) * pageSize;
+  childProcess.execFileSync('prlimit', ['--pid', String(process.pid), '--as=' + (baseline + memoryLimit)]);
+}
+
+limitMemory(parseInt(process.argv[4], 10));
+
+const context = vm.createContext({
+  console, process, require, module, Buffer, URL, TextEncoder, TextDecoder,
+  setTimeout, clearTimeout, setInterval, clearInterval, setImmediate, clearImmediate, queueMicrotask,
+});
+
+// Output past MAX_OUTPUT is dropped as it is written, so a cell cannot hold it all in memory
+function capture(stream, chunks) {
+  const original = stream.write;
+  let size = 0;
+  stream.write = (chunk, encoding, callback) => {
+    if (size <= MAX_OUTPUT) {
+      const text = typeof chunk === 'string' ? chunk : Buffer.from(chunk).toString('utf8');
+      chunks.push(text);
+      size += Buffer.byteLength(text);
+    }
+    if (typeof encoding === 'function') encoding();
+    else if (typeof callback === 'function') callback();
+    return true;
+  };
+  return () => { stream.write = original; };
+}
+
+function collect(chunks) {
+  const text = chunks.join('');
+  return Buffer.byteLength(text) > MAX_OUTPUT ? Buffer.from(text).subarray(0, MAX_OUTPUT).toString('utf8') : text;
+}
+
+async function evaluate(source) {
+  const stdout = [];
+  const stderr = [];
+  const restoreOut = capture(process.stdout, stdout);
+  const restoreErr = capture(process.stderr, stderr);
+  let status = 'ok';
+  let result = null;
+  try {
+    let value = vm.runInContext(source, context, { filename: '<cell>' });
+    // Let a cell that ends in a promise finish before it is reported
+    if (value && typeof value.then === 'function') value = await value;
+    if (value !== undefined) {
+      context._ = value;
+      result = util.inspect(value).slice(0, MAX_OUTPUT);
+    }
+  } catch (e) {
+    // Keep only the cell's own frames, as the node REPL does
+    const stack = (e && e.stack) ? e.stack.split('\n').filter((line) => !/^\s+at /.test(line) || line.includes('<cell>')) : [String(e)];
+    stderr.push(stack.join('\n') + '\n');
+    status = 'error';
+  } finally {
+    restoreOut();
+    restoreErr();
+  }
+  const reply = { status, stdout: collect(stdout), stderr: collect(stderr), result };
+  process.stdout.write(TOKEN + ' ' + JSON.stringify(reply) + '\n');
+}
+
+// Snippets run one at a time; the event loop keeps running between them
+let pending = Buffer.alloc(0);
+let busy = false;
+
+async function drain() {
+  if (busy) return;
+  busy = true;
+  try {
+    for (;;) {
+      const newline = pending.indexOf(10);
+      if (newline < 0) return;
+      const length = parseInt(pending.subarray(0, newline).toString(), 10);
+      if (pending.length < newline + 1 + length) return;
+      const source = pending.subarray(newline + 1, newline + 1 + length).toString('utf8');
+      pending = pending.subarray(newline + 1 + length);
+      await evaluate(source);
+    }
+  } finally {
+    busy = false;
+  }
+}
+
+process.stdin.on('data', (data) => {
+  pending = Buffer.concat([pending, data]);
+  drain();
+});
+process.stdin.on('end', () => process.exit(0));
@@ -0,0 +1,116 @@
+# Python REPL driver: keeps one namespace alive across snippets for a session.
+#
+# Protocol on the driver's own stdin/stdout (argv: <token> <maxOutputBytes> <memoryLimitBytes>):
+#   -> "<byteLength>\n<snippet>"
+#   <- "<token> {"status": "ok"|"error"|"exit", "stdout": ..., "stderr": ..., "result": ...}\n"
+# Snippet output is captured at the fd level, so subprocesses and os.write are included.
+import ast
+import json
+import os
+import resource
+import signal
+import sys
+import tempfile
+import traceback
+
+TOKEN = sys.argv[1]
+MAX_OUTPUT = int(sys.argv[2])
+# Captures only need MAX_OUTPUT; the rest is headroom for files the cell writes itself
+FILE_LIMIT = max(MAX_OUTPUT * 16, 1 << 20)
+CELL = '<cell>'
+
+
+def limit_memory(memory_limit):
+    if memory_limit > 0:
+        with open('/proc/self/statm') as statm:
+            baseline = int(statm.read().split()[0]) * resource.getpagesize()
+        resource.setrlimit(resource.RLIMIT_AS, (baseline + memory_limit, baseline + memory_limit))
+
+
+def limit_file_size():
+    """Caps every file the session writes, the capture files included, so a cell cannot fill
+    the disk. Writes past it fail with EFBIG instead of killing the driver."""
+    signal.signal(signal.SIGXFSZ, signal.SIG_IGN)
+    resource.setrlimit(resource.RLIMIT_FSIZE, (FILE_LIMIT, FILE_LIMIT))
+
+
+def read_capture(capture):
+    os.lseek(capture, 0, os.SEEK_SET)
+    data = os.read(capture, MAX_OUTPUT)
+    os.ftruncate(capture, 0)
+    os.lseek(capture, 0, os.SEEK_SET)
+    return data.decode('utf-8', 'replace')
+
+
+def evaluate(source, namespace):
+    """Runs the snippet like an interactive cell: the value of a trailing expression is returned."""
+    tree = ast.parse(source, CELL)
+    last = None
+    if tree.body and isinstance(tree.body[-1], ast.Expr):
+        last = ast.Expression(tree.body.pop().value)
+    exec(compile(tree, CELL, 'exec'), namespace)
+    if last is not None:
+        value = eval(compile(last, CELL, 'eval'), namespace)
+        if value is not None:
+            namespace['_'] = value
+            return repr(value)[:MAX_OUTPUT]
+    return None
+
+
+def main():
+    # Keep the pipes to the backend for the protocol and give snippets /dev/null and capture files
+    control_in = os.fdopen(os.dup(0), 'rb')
+    control_out = os.fdopen(os.dup(1), 'w', encoding='utf-8')
+    devnull = os.open(os.devnull, os.O_RDONLY)
+    os.dup2(devnull, 0)
+    os.close(devnull)
+    capture_files = [tempfile.TemporaryFile(dir='.') for _ in range(2)]
+    captures = [f.fileno() for f in capture_files]
+    limit_memory(int(sys.argv[3]))
+    limit_file_size()
+
+    namespace = {'__name__': '__main__', '__builtins__': __builtins__}
+    while True:
+        header = control_in.readline()
+        if not header:
+            return
+        source = control_in.read(int(header)).decode('utf-8')
+
+        sys.stdout.flush()
+        sys.stderr.flush()
+        saved = [os.dup(1), os.dup(2)]
+        os.dup2(captures[0], 1)
+        os.dup2(captures[1], 2)
+        status, result = 'ok', None
+        try:
+            result = evaluate(source, namespace)
+        except SystemExit:
+            status = 'exit'
+        except BaseException as e:
+            # Drop the driver frames so the traceback starts at the cell
+            tb = e.__traceback__
+            while tb is not None and tb.tb_frame.f_code.co_filename != CELL:
+                tb = tb.tb_next
+            traceback.print_exception(type(e), e, tb)
+            status = 'error'
+        finally:
+            try:
+                sys.stdout.flush()
+                sys.stderr.flush()
+            except Exception:
+                pass
+            os.dup2(saved[0], 1)
+            os.dup2(saved[1], 2)
+            for fd in saved:
+                os.close(fd)
+
+        reply = {'status': status, 'stdout': read_capture(captures[0]),
+                 'stderr': read_capture(captures[1]), 'result': result}
+        control_out.write(TOKEN + ' ' + json.dumps(reply) + '\n')
+        control_out.flush()
+        if status == 'exit':
+            return
+
+
+if __name__ == '__main__':
+    main()
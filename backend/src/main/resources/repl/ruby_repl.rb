@@ -0,0 +1,82 @@
+# Ruby REPL driver: keeps one top-level binding alive across snippets for a session.
+# Speaks the same protocol as python_repl.py (argv: <token> <maxOutputBytes> <memoryLimitBytes>).
+require 'json'
+require 'etc'
+require 'tempfile'
+
+TOKEN = ARGV[0]
+MAX_OUTPUT = ARGV[1].to_i
+# Captures only need MAX_OUTPUT; the rest is headroom for files the cell writes itself
+FILE_LIMIT = [MAX_OUTPUT * 16, 1 << 20].max
+CELL = '<cell>'
+
+def limit_memory(memory_limit)
+  return unless memory_limit > 0
+
+  baseline = File.read('/proc/self/statm').split.first.to_i * Etc.sysconf(Etc::SC_PAGESIZE)
+  Process.setrlimit(:AS, baseline + memory_limit)
+end
+
+# Caps every file the session writes, the capture files included, so a cell cannot fill the
+# disk. Writes past it fail with EFBIG instead of killing the driver.
+def limit_file_size
+  Signal.trap('XFSZ', 'IGNORE')
+  Process.setrlimit(:FSIZE, FILE_LIMIT)
+end
+
+# A binding of its own, so snippets do not see the driver's locals
+def session_binding
+  binding
+end
+
+def read_capture(file)
+  file.flush
+  file.rewind
+  data = file.read(MAX_OUTPUT) || ''
+  file.truncate(0)
+  file.rewind
+  data.force_encoding('UTF-8').scrub
+end
+
+# Keep the pipes to the backend for the protocol and give snippets /dev/null and capture files
+control_in = $stdin.dup
+control_in.binmode
+control_out = $stdout.dup
+control_out.sync = true
+$stdin.reopen(File::NULL)
+captures = [Tempfile.create('out', '.'), Tempfile.create('err', '.')]
+saved = [$stdout.dup, $stderr.dup]
+limit_memory(ARGV[2].to_i)
+limit_file_size
+
+session = session_binding
+loop do
+  header = control_in.gets
+  break if header.nil?
+
+  source = control_in.read(header.to_i).force_encoding('UTF-8')
+  $stdout.reopen(captures[0])
+  $stderr.reopen(captures[1])
+  status = 'ok'
+  result = nil
+  begin
+    value = session.eval(source, CELL)
+    result = value.inspect[0, MAX_OUTPUT] unless value.nil?
+  rescue SystemExit
+    status = 'exit'
+  rescue Exception => e # rubocop:disable Lint/RescueException
+    # Drop the driver frames so the backtrace starts at the cell
+    frames = (e.backtrace || []).take_while { |frame| frame.start_with?(CELL) }
+    $stderr.puts(["#{frames.first || CELL}: #{e.message} (#{e.class})", *frames.drop(1).map { |f| "\tfrom #{f}" }])
+    status = 'error'
+  ensure
+    $stdout.flush
+    $stderr.flush
+    $stdout.reopen(saved[0])
+    $stderr.reopen(saved[1])
+  end
+
+  reply = { status: status, stdout: read_capture(captures[0]), stderr: read_capture(captures[1]), result: result }
+  control_out.write("#{TOKEN} #{JSON.generate(reply)}\n")
+  break if status == 'exit'
+end
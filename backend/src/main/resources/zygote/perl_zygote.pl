@@ -0,0 +1,90 @@
+# Perl zygote: pays interpreter startup once and forks a fresh child per submission.
+# Speaks the same line protocol as python_zygote.py on the Unix socket given as $ARGV[0].
+use strict;
+use warnings;
+use IO::Socket::UNIX;
+use POSIX qw(mkfifo setsid :sys_wait_h);
+
+# Modules most submissions use; loading them here is the point of the zygote
+use List::Util ();
+use Scalar::Util ();
+use Data::Dumper ();
+
+my @FIFOS = ('.stdin', '.stdout', '.stderr');
+
+# Core Perl has no setrlimit; use BSD::Resource when the image provides it
+my $HAS_RLIMIT = eval { require BSD::Resource; 1 };
+
+sub run_child {
+    my ($workdir, $source, $memory_limit, $cpu_seconds, $cpus) = @_;
+    setsid();
+    # Perl has no affinity API; taskset is only paid for when pinning is on
+    system("taskset -pc $cpus $$ >/dev/null 2>&1") if length $cpus;
+    my @paths = map { "$workdir/$_" } @FIFOS;
+    # Open order must match the Java side: stdin, stdout, stderr
+    open(STDIN, '<', $paths[0]) or POSIX::_exit(127);
+    open(STDOUT, '>', $paths[1]) or POSIX::_exit(127);
+    open(STDERR, '>', $paths[2]) or POSIX::_exit(127);
+    unlink @paths;
+
+    if ($HAS_RLIMIT) {
+        if ($memory_limit > 0 && open(my $statm, '<', '/proc/self/statm')) {
+            my ($pages) = split ' ', scalar <$statm>;
+            my $limit = $pages * POSIX::sysconf(POSIX::_SC_PAGESIZE()) + $memory_limit;
+            BSD::Resource::setrlimit(BSD::Resource::RLIMIT_AS(), $limit, $limit);
+        }
+        BSD::Resource::setrlimit(BSD::Resource::RLIMIT_CPU(), $cpu_seconds, $cpu_seconds) if $cpu_seconds > 0;
+    }
+
+    $0 = $source;
+    @ARGV = ();
+    my $ok = do $source;
+    if (!defined $ok && $@) {
+        print STDERR $@;
+        exit 255;
+    }
+    exit 0;
+}
+
+sub handle {
+    my ($conn) = @_;
+    my $line = <$conn>;
+    chomp $line;
+    my ($workdir, $source, $memory_limit, $cpu_seconds, $cpus) = split /\t/, $line, -1;
+    $cpus = '' unless defined $cpus;
+    chdir $workdir or die "chdir $workdir: $!";
+    mkfifo("$workdir/$_", 0600) or die "mkfifo $_: $!" for @FIFOS;
+
+    local $SIG{CHLD} = 'DEFAULT';
+    my $pid = fork;
+    die "fork: $!" unless defined $pid;
+    if ($pid == 0) {
+        close $conn;
+        run_child($workdir, $source, $memory_limit, $cpu_seconds, $cpus);
+    }
+    $conn->autoflush(1);
+    print $conn "pid $pid\n";
+    waitpid($pid, 0);
+    my $status = $?;
+    my $code = WIFEXITED($status) ? WEXITSTATUS($status) : 128 + WTERMSIG($status);
+    print $conn "exit $code\n";
+}
+
+my $server = IO::Socket::UNIX->new(
+    Type   => SOCK_STREAM(),
+    Local  => $ARGV[0],
+    Listen => 128,
+) or die "Cannot listen on $ARGV[0]: $!";
+
+# Handlers are never waited on by the zygote itself
+$SIG{CHLD} = 'IGNORE';
+while (1) {
+    my $conn = $server->accept or next;
+    my $handler = fork;
+    if (defined $handler && $handler == 0) {
+        close $server;
+        eval { handle($conn) };
+        POSIX::_exit(0);
+    }
+    close $conn;
+}
@@ -0,0 +1,114 @@
+# Python zygote: pays interpreter startup once and forks a fresh child per submission.
+#
+# Protocol (one connection per submission on the Unix socket given as argv[1]):
+#   -> "<workdir>\t<source>\t<memoryLimitBytes>\t<cpuSeconds>\t<cpuList>\n"  (cpuList may be empty)
+#   <- "pid <pid>\n"      once .stdin/.stdout/.stderr FIFOs exist in the work dir
+#   <- "exit <code>\n"    when the child terminates (128 + signal if killed)
+import os
+import signal
+import socket
+import sys
+
+# Modules most submissions import; loading them here is the point of the zygote
+import bisect
+import collections
+import functools
+import heapq
+import itertools
+import json
+import math
+import random
+import re
+import resource
+import runpy
+import string
+import traceback
+
+FIFOS = ('.stdin', '.stdout', '.stderr')
+
+
+def run_child(workdir, source, memory_limit, cpu_seconds, cpus):
+    os.setsid()
+    if cpus:
+        os.sched_setaffinity(0, {int(cpu) for cpu in cpus.split(',')})
+    paths = [os.path.join(workdir, name) for name in FIFOS]
+    # Open order must match the Java side: stdin, stdout, stderr
+    fds = [os.open(paths[0], os.O_RDONLY), os.open(paths[1], os.O_WRONLY), os.open(paths[2], os.O_WRONLY)]
+    for target, fd in enumerate(fds):
+        os.dup2(fd, target)
+        os.close(fd)
+    for path in paths:
+        os.unlink(path)
+
+    if memory_limit > 0:
+        with open('/proc/self/statm') as statm:
+            baseline = int(statm.read().split()[0]) * resource.getpagesize()
+        resource.setrlimit(resource.RLIMIT_AS, (baseline + memory_limit, baseline + memory_limit))
+    if cpu_seconds > 0:
+        resource.setrlimit(resource.RLIMIT_CPU, (cpu_seconds, cpu_seconds))
+
+    sys.argv = [source]
+    sys.path[0] = workdir
+    code = 0
+    try:
+        runpy.run_path(source, run_name='__main__')
+    except SystemExit as e:
+        if e.code is None:
+            code = 0
+        elif isinstance(e.code, int):
+            code = e.code
+        else:
+            print(e.code, file=sys.stderr)
+            code = 1
+    except BaseException as e:
+        # Drop the zygote and runpy frames so the traceback matches a plain `python3 main.py`
+        tb = e.__traceback__
+        while tb is not None and tb.tb_frame.f_code.co_filename != source:
+            tb = tb.tb_next
+        traceback.print_exception(type(e), e, tb)
+        code = 1
+    try:
+        sys.stdout.flush()
+        sys.stderr.flush()
+    except Exception:
+        pass
+    os._exit(code)
+
+
+def handle(conn):
+    stream = conn.makefile('rb')
+    workdir, source, memory_limit, cpu_seconds, cpus = stream.readline().decode().rstrip('\n').split('\t')
+    os.chdir(workdir)
+    for name in FIFOS:
+        os.mkfifo(os.path.join(workdir, name), 0o600)
+
+    signal.signal(signal.SIGCHLD, signal.SIG_DFL)
+    pid = os.fork()
+    if pid == 0:
+        conn.close()
+        run_child(workdir, source, int(memory_limit), int(cpu_seconds), cpus)
+    conn.sendall(b'pid %d\n' % pid)
+    _, status = os.waitpid(pid, 0)
+    code = os.waitstatus_to_exitcode(status)
+    conn.sendall(b'exit %d\n' % (128 - code if code < 0 else code))
+
+
+def main():
+    server = socket.socket(socket.AF_UNIX, socket.SOCK_STREAM)
+    server.bind(sys.argv[1])
+    server.listen(128)
+    # Handlers are never waited on by the zygote itself
+    signal.signal(signal.SIGCHLD, signal.SIG_IGN)
+    while True:
+        conn, _ = server.accept()
+        if os.fork() == 0:
+            server.close()
+            try:
+                handle(conn)
+            finally:
+                os._exit(0)
+        conn.close()
+
+
+if __name__ == '__main__':
+    main()
@@ -0,0 +1,62 @@
+# Ruby zygote: pays interpreter startup once and forks a fresh child per submission.
+# Speaks the same line protocol as python_zygote.py on the Unix socket given as ARGV[0].
+require 'socket'
+require 'etc'
+
+# Libraries most submissions require; loading them here is the point of the zygote
+require 'set'
+require 'json'
+require 'prime'
+
+FIFOS = %w[.stdin .stdout .stderr].freeze
+
+def run_child(workdir, source, memory_limit, cpu_seconds, cpus)
+  Process.setsid
+  # Ruby has no affinity API; taskset is only paid for when pinning is on
+  system('taskset', '-pc', cpus, Process.pid.to_s, out: File::NULL, err: File::NULL) unless cpus.empty?
+  paths = FIFOS.map { |name| File.join(workdir, name) }
+  # Open order must match the Java side: stdin, stdout, stderr
+  $stdin.reopen(paths[0], 'r')
+  $stdout.reopen(paths[1], 'w')
+  $stderr.reopen(paths[2], 'w')
+  paths.each { |path| File.unlink(path) }
+
+  if memory_limit > 0
+    baseline = File.read('/proc/self/statm').split.first.to_i * Etc.sysconf(Etc::SC_PAGESIZE)
+    Process.setrlimit(:AS, baseline + memory_limit)
+  end
+  Process.setrlimit(:CPU, cpu_seconds) if cpu_seconds > 0
+
+  $0 = source
+  ARGV.clear
+  load source
+end
+
+def handle(conn)
+  workdir, source, memory_limit, cpu_seconds, cpus = conn.gets.chomp.split("\t", -1)
+  Dir.chdir(workdir)
+  FIFOS.each { |name| File.mkfifo(File.join(workdir, name), 0o600) }
+
+  pid = fork do
+    conn.close
+    run_child(workdir, source, memory_limit.to_i, cpu_seconds.to_i, cpus.to_s)
+  end
+  conn.write("pid #{pid}\n")
+  conn.flush
+  _, status = Process.wait2(pid)
+  code = status.exitstatus || 128 + status.termsig
+  conn.write("exit #{code}\n")
+  conn.flush
+end
+
+server = UNIXServer.new(ARGV[0])
+loop do
+  conn = server.accept
+  handler = fork do
+    server.close
+    handle(conn)
+    exit!(0)
+  end
+  Process.detach(handler)
+  conn.close
+end
@@ -0,0 +1,81 @@
+package com.coderplatform.service;
+
+import com.coderplatform.config.ExecutionConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoreAllocatorTest {
+
+    @Test
+    void parsesSinglesAndRanges() {
+        assertEquals(List.of(0, 1, 2, 3, 6), CoreAllocator.parseCpuList("0-3,6"));
+        assertEquals(List.of(4, 2, 3), CoreAllocator.parseCpuList(" 4 , 2 - 3 "));
+        assertEquals(List.of(5), CoreAllocator.parseCpuList("5-5"));
+        assertEquals(List.of(0, 1), CoreAllocator.parseCpuList("0-1\n"));
+    }
+
+    @Test
+    void emptyListMeansNoCores() {
+        assertEquals(List.of(), CoreAllocator.parseCpuList(null));
+        assertEquals(List.of(), CoreAllocator.parseCpuList(""));
+        assertEquals(List.of(), CoreAllocator.parseCpuList("   "));
+    }
+
+    @Test
+    void rejectsMalformedLists() {
+        for (String list : List.of("a", "1,", ",1", "1,,2", "-1", "1-", "1-2-3", "+1", "1.5", "0x1", "123456")) {
+            assertThrows(IllegalArgumentException.class, () -> CoreAllocator.parseCpuList(list), list);
+        }
+    }
+
+    @Test
+    void rejectsDescendingRangesAndDuplicates() {
+        IllegalArgumentException descending =
+                assertThrows(IllegalArgumentException.class, () -> CoreAllocator.parseCpuList("3-1"));
+        assertTrue(descending.getMessage().contains("3-1"));
+
+        IllegalArgumentException duplicate =
+                assertThrows(IllegalArgumentException.class, () -> CoreAllocator.parseCpuList("0-2,2"));
+        assertTrue(duplicate.getMessage().contains("core 2"));
+    }
+
+    @Test
+    void startupNamesTheBadProperty() {
+        ExecutionConfig config = new ExecutionConfig();
+        config.setAffinityEnabled(true);
+        config.setRunCpus("0-x");
+        IllegalStateException malformed = assertThrows(IllegalStateException.class,
+                () -> new CoreAllocator(config).init());
+        assertTrue(malformed.getMessage().contains("execution.run-cpus"));
+
+        config.setRunCpus("");
+        config.setCompileCpus("99999");
+        IllegalStateException missing = assertThrows(IllegalStateException.class,
+                () -> new CoreAllocator(config).init());
+        assertTrue(missing.getMessage().contains("execution.compile-cpus"));
+    }
+
+    @Test
+    void startupRejectsOverlappingCompileAndRunCores() {
+        ExecutionConfig config = new ExecutionConfig();
+        config.setAffinityEnabled(true);
+        config.setCompileCpus("0");
+        config.setRunCpus("0");
+        IllegalStateException overlap = assertThrows(IllegalStateException.class,
+                () -> new CoreAllocator(config).init());
+        assertTrue(overlap.getMessage().contains("[0]"));
+    }
+
+    @Test
+    void disabledAffinityIgnoresTheLists() {
+        ExecutionConfig config = new ExecutionConfig();
+        config.setAffinityEnabled(false);
+        config.setRunCpus("not a list");
+        CoreAllocator allocator = new CoreAllocator(config);
+        allocator.init();
+        assertFalse(allocator.isEnabled());
+    }
+}
@@ -0,0 +1,130 @@
+package com.coderplatform.service;
+
+import com.coderplatform.config.ExecutionConfig;
+import com.coderplatform.model.PipelineStageStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionPipelineTest {
+
+    private ExecutionPipeline pipeline;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void start() {
+        ExecutionConfig config = new ExecutionConfig();
+        config.setRunThreads(1);
+        pipeline = new ExecutionPipeline(config);
+        pipeline.start();
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        release.countDown();
+        pipeline.stop();
+    }
+
+    @Test
+    void returnsTheTaskResultAndRethrowsItsException() throws Exception {
+        ExecutionTrace trace = new ExecutionTrace(new ExecutionHandle("ok", null));
+        assertEquals(42, pipeline.call(ExecutionPipeline.Stage.RUN, trace, () -> 42));
+
+        IOException failure = new IOException("boom");
+        assertSame(failure, assertThrows(IOException.class,
+                () -> pipeline.call(ExecutionPipeline.Stage.RUN, trace, () -> {
+                    throw failure;
+                })));
+    }
+
+    @Test
+    void submissionPastItsDeadlineIsDroppedFromTheQueue() throws Exception {
+        occupyRunThread();
+
+        AtomicBoolean ran = new AtomicBoolean();
+        ExecutionTrace trace = new ExecutionTrace(new ExecutionHandle("late", 200L));
+        CancellationException abandoned = assertThrows(CancellationException.class,
+                () -> pipeline.call(ExecutionPipeline.Stage.RUN, trace, () -> ran.getAndSet(true)));
+        assertTrue(abandoned.getMessage().contains("run"));
+        assertEquals(0, runStats().getQueued());
+
+        release.countDown();
+        // Once the worker is free, the abandoned task must not run after all
+        ExecutionTrace next = new ExecutionTrace(new ExecutionHandle("next", null));
+        assertEquals("done", pipeline.call(ExecutionPipeline.Stage.RUN, next, () -> "done"));
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void cancelledSubmissionIsDroppedFromTheQueue() throws Exception {
+        occupyRunThread();
+
+        AtomicBoolean ran = new AtomicBoolean();
+        ExecutionHandle handle = new ExecutionHandle("cancelled", null);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                pipeline.call(ExecutionPipeline.Stage.RUN, new ExecutionTrace(handle), () -> ran.getAndSet(true));
+            } catch (Throwable e) {
+                thrown.set(e);
+            }
+        });
+        caller.start();
+        waitForQueued(1);
+
+        handle.cancel();
+        caller.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(caller.isAlive());
+        assertInstanceOf(CancellationException.class, thrown.get());
+        assertEquals(0, runStats().getQueued());
+
+        release.countDown();
+        ExecutionTrace next = new ExecutionTrace(new ExecutionHandle("next", null));
+        pipeline.call(ExecutionPipeline.Stage.RUN, next, () -> null);
+        assertFalse(ran.get());
+    }
+
+    /**
+     * Blocks the single run thread until the test releases it.
+     */
+    private void occupyRunThread() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        Thread blocker = new Thread(() -> {
+            try {
+                pipeline.call(ExecutionPipeline.Stage.RUN, new ExecutionTrace(new ExecutionHandle("blocker", null)), () -> {
+                    started.countDown();
+                    return release.await(10, TimeUnit.SECONDS);
+                });
+            } catch (Exception e) {
+                // Ends with the test
+            }
+        });
+        blocker.setDaemon(true);
+        blocker.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    private void waitForQueued(int queued) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (runStats().getQueued() != queued) {
+            assertTrue(System.nanoTime() < deadline, "task never queued");
+            Thread.sleep(10);
+        }
+    }
+
+    private PipelineStageStats runStats() {
+        return pipeline.getStats().stream()
+                .filter(stats -> stats.getStage().equals("run"))
+                .findFirst()
+                .orElseThrow();
+    }
+}
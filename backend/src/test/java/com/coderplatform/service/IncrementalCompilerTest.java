@@ -0,0 +1,114 @@
+package com.coderplatform.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalCompilerTest {
+
+    @Test
+    void quotedIncludesResolveNextToTheIncludingFileFirst() {
+        Map<String, String> sources = Map.of(
+                "main.c", "#include \"util/util.h\"\nint main() { return 0; }\n",
+                "util/util.h", "#include \"types.h\"\n",
+                "util/types.h", "typedef int T;\n",
+                "types.h", "typedef long T;\n");
+        assertEquals(Set.of("util/util.h", "util/types.h"), IncrementalCompiler.includeClosure("main.c", sources));
+    }
+
+    @Test
+    void quotedIncludesFallBackToTheProjectRoot() {
+        Map<String, String> sources = Map.of(
+                "src/main.c", "#include \"config.h\"\n",
+                "config.h", "#define N 1\n");
+        assertEquals(Set.of("config.h"), IncrementalCompiler.includeClosure("src/main.c", sources));
+    }
+
+    @Test
+    void angleBracketIncludesResolveFromTheProjectRootOnly() {
+        Map<String, String> sources = Map.of(
+                "src/main.cpp", "#include <conf.h>\n#include <vector>\n  #  include <src/local.h>\n",
+                "conf.h", "#define N 1\n",
+                "src/conf.h", "#define N 2\n",
+                "src/local.h", "\n");
+        assertEquals(Set.of("conf.h", "src/local.h"), IncrementalCompiler.includeClosure("src/main.cpp", sources));
+    }
+
+    @Test
+    void computedIncludesDependOnEveryProjectFile() {
+        Map<String, String> sources = Map.of(
+                "main.c", "#define HEADER \"a.h\"\n#include HEADER\n",
+                "a.h", "\n",
+                "b.c", "int b;\n");
+        assertEquals(Set.of("a.h", "b.c"), IncrementalCompiler.includeClosure("main.c", sources));
+    }
+
+    @Test
+    void includeCyclesAndMissingHeadersAreHarmless() {
+        Map<String, String> sources = Map.of(
+                "main.c", "#include \"a.h\"\n#include \"missing.h\"\n#include \"main.c\"\n",
+                "a.h", "#include \"b.h\"\n",
+                "b.h", "#include \"a.h\"\n");
+        assertEquals(Set.of("a.h", "b.h"), IncrementalCompiler.includeClosure("main.c", sources));
+    }
+
+    @Test
+    void referenceClosureFollowsMentionedTypesTransitively() {
+        Map<String, String> sources = Map.of(
+                "Main.java", "public class Main { Shape s = new Circle(); }\n",
+                "Shape.java", "interface Shape {}\n",
+                "Circle.java", "class Circle implements Shape { Point center; }\n",
+                "geo/Point.java", "package geo; class Point { record Pair(int a, int b) {} }\n",
+                "Unused.java", "class Unused {}\n");
+        Map<String, String> owners = IncrementalCompiler.typeOwners(sources);
+        assertEquals("geo/Point.java", owners.get("Pair"));
+        assertEquals(Set.of("Shape.java", "Circle.java", "geo/Point.java"),
+                IncrementalCompiler.referenceClosure("Main.java", sources, owners));
+        assertEquals(Set.of(), IncrementalCompiler.referenceClosure("Unused.java", sources, owners));
+    }
+
+    @Test
+    void keyChangesWithTheUnitAndItsDependenciesOnly() {
+        Map<String, String> sources = new HashMap<>(Map.of(
+                "src/main.c", "#include <conf.h>\nint main() { return N; }\n",
+                "conf.h", "#define N 1\n",
+                "other.c", "int other;\n"));
+        String before = key(sources);
+        assertEquals(before, key(sources));
+
+        sources.put("other.c", "int other = 2;\n");
+        assertEquals(before, key(sources), "unrelated files do not change the key");
+
+        sources.put("conf.h", "#define N 2\n");
+        String changedHeader = key(sources);
+        assertNotEquals(before, changedHeader, "an angle-bracket include is part of the key");
+
+        sources.put("src/main.c", "#include <conf.h>\nint main() { return N + 1; }\n");
+        assertNotEquals(changedHeader, key(sources));
+    }
+
+    @Test
+    void keyDependsOnToolAndUnitName() {
+        Map<String, String> sources = Map.of("a.c", "int x;\n", "b.c", "int x;\n");
+        String a = IncrementalCompiler.key("gcc", "a.c", sources, Set.of());
+        assertNotEquals(a, IncrementalCompiler.key("g++", "a.c", sources, Set.of()));
+        assertNotEquals(a, IncrementalCompiler.key("gcc", "b.c", sources, Set.of()));
+    }
+
+    @Test
+    void keyFieldsCannotRunIntoEachOther() {
+        Map<String, String> first = Map.of("a.c", "x", "h.h", "yz");
+        Map<String, String> second = Map.of("a.c", "xy", "h.h", "z");
+        assertNotEquals(IncrementalCompiler.key("gcc", "a.c", first, Set.of("h.h")),
+                IncrementalCompiler.key("gcc", "a.c", second, Set.of("h.h")));
+    }
+
+    private static String key(Map<String, String> sources) {
+        return IncrementalCompiler.key("gcc", "src/main.c", sources,
+                IncrementalCompiler.includeClosure("src/main.c", sources));
+    }
+}
@@ -0,0 +1,112 @@
+package com.coderplatform.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalRingBufferTest {
+
+    @Test
+    void pollsInOfferOrder() {
+        JournalRingBuffer<Integer> ring = new JournalRingBuffer<>(4);
+        assertTrue(ring.isEmpty());
+        assertNull(ring.poll());
+
+        assertTrue(ring.offer(1));
+        assertTrue(ring.offer(2));
+        assertFalse(ring.isEmpty());
+        assertEquals(1, ring.poll());
+        assertEquals(2, ring.poll());
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void rejectsAndCountsWhenFull() {
+        JournalRingBuffer<Integer> ring = new JournalRingBuffer<>(3);   // rounded up to 4
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertFalse(ring.offer(5));
+        assertEquals(2, ring.getDropped());
+
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(6));
+        assertFalse(ring.offer(7));
+        assertEquals(3, ring.getDropped());
+    }
+
+    @Test
+    void wrapsAroundManyTimes() {
+        JournalRingBuffer<Integer> ring = new JournalRingBuffer<>(4);
+        int next = 0;
+        for (int round = 0; round < 100; round++) {
+            assertTrue(ring.offer(round * 3));
+            assertTrue(ring.offer(round * 3 + 1));
+            assertTrue(ring.offer(round * 3 + 2));
+            for (int i = 0; i < 3; i++) {
+                assertEquals(next++, ring.poll());
+            }
+            assertTrue(ring.isEmpty());
+        }
+        assertEquals(0, ring.getDropped());
+    }
+
+    @Test
+    void concurrentProducersLoseNothingThatWasAccepted() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 10_000;
+        JournalRingBuffer<Integer> ring = new JournalRingBuffer<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        int[] accepted = new int[producers];
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    if (ring.offer(producer * perProducer + i)) {
+                        accepted[producer]++;
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        int polled = 0;
+        int[] lastSeen = {-1, -1, -1, -1};
+        while (threads.stream().anyMatch(Thread::isAlive) || !ring.isEmpty()) {
+            Integer value = ring.poll();
+            if (value == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            // Each producer's elements come out in the order it offered them
+            int producer = value / perProducer;
+            assertTrue(value > lastSeen[producer]);
+            lastSeen[producer] = value;
+            polled++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int totalAccepted = 0;
+        for (int count : accepted) {
+            totalAccepted += count;
+        }
+        assertEquals(totalAccepted, polled);
+        assertEquals(producers * perProducer - totalAccepted, ring.getDropped());
+    }
+}
@@ -0,0 +1,169 @@
+package com.coderplatform.service;
+
+import com.coderplatform.model.CodeExecutionRequest;
+import com.coderplatform.model.JudgeMode;
+import com.coderplatform.model.JudgeVerdict;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutputJudgeTest {
+
+    private static final long OUTPUT_LIMIT = 4096;
+
+    private static OutputJudge judge(JudgeMode mode, String expected) {
+        CodeExecutionRequest request = new CodeExecutionRequest();
+        request.setExpectedOutput(expected);
+        request.setJudgeMode(mode);
+        request.setFloatTolerance(1e-6);
+        return OutputJudge.forRequest(request, OUTPUT_LIMIT);
+    }
+
+    private static boolean feed(OutputJudge judge, String output) {
+        char[] chars = output.toCharArray();
+        return judge.accept(chars, 0, chars.length);
+    }
+
+    @Test
+    void noExpectedOutputMeansNoJudge() {
+        assertNull(OutputJudge.forRequest(new CodeExecutionRequest(), OUTPUT_LIMIT));
+    }
+
+    @Test
+    void exactAcceptsOutputWithOrWithoutTrailingNewline() {
+        OutputJudge withNewline = judge(JudgeMode.EXACT, "1 2\n3\n");
+        assertTrue(feed(withNewline, "1 2\n3\n"));
+        assertTrue(withNewline.verdict().isAccepted());
+
+        OutputJudge withoutNewline = judge(JudgeMode.EXACT, "1 2\n3\n");
+        assertTrue(feed(withoutNewline, "1 2\n3"));
+        assertTrue(withoutNewline.verdict().isAccepted());
+    }
+
+    @Test
+    void exactDefaultsWhenNoModeIsGiven() {
+        OutputJudge judge = judge(null, "a\n");
+        assertFalse(feed(judge, "a \n"));
+    }
+
+    @Test
+    void exactStopsAtFirstDifferenceWithPosition() {
+        OutputJudge judge = judge(JudgeMode.EXACT, "hello\nworld\n");
+        assertFalse(feed(judge, "hello\nwOrld\nmore output"));
+        assertTrue(judge.isMismatched());
+
+        JudgeVerdict verdict = judge.verdict();
+        assertEquals(JudgeVerdict.Result.WRONG_ANSWER, verdict.getResult());
+        assertEquals(2L, verdict.getLine());
+        assertEquals(2L, verdict.getColumn());
+        assertEquals("orld", verdict.getExpected());
+        assertEquals("Orld", verdict.getActual());
+    }
+
+    @Test
+    void exactReportsEarlyEndAndExtraOutput() {
+        OutputJudge shortOutput = judge(JudgeMode.EXACT, "abc\n");
+        assertTrue(feed(shortOutput, "ab"));
+        assertEquals("Output ended early", shortOutput.verdict().getMessage());
+
+        OutputJudge longOutput = judge(JudgeMode.EXACT, "abc\n");
+        assertFalse(feed(longOutput, "abc\n\n"));
+        assertEquals("Extra output", longOutput.verdict().getMessage());
+    }
+
+    @Test
+    void chunkBoundariesDoNotMatter() {
+        OutputJudge judge = judge(JudgeMode.WHITESPACE, "12 345\n");
+        assertTrue(feed(judge, "1"));
+        assertTrue(feed(judge, "2  3"));
+        assertTrue(feed(judge, "45\n\n"));
+        assertTrue(judge.verdict().isAccepted());
+    }
+
+    @Test
+    void whitespaceIgnoresSpacingButNotTokens() {
+        OutputJudge judge = judge(JudgeMode.WHITESPACE, "1 2\n3");
+        assertTrue(feed(judge, "  1\t2   \n\n 3  \n"));
+        assertTrue(judge.verdict().isAccepted());
+
+        OutputJudge wrong = judge(JudgeMode.WHITESPACE, "1 2 3");
+        assertFalse(feed(wrong, "1 25 3"));
+        JudgeVerdict verdict = wrong.verdict();
+        assertEquals(1L, verdict.getLine());
+        assertEquals(3L, verdict.getColumn());
+    }
+
+    @Test
+    void whitespaceStopsInsideAnOverlongToken() {
+        OutputJudge judge = judge(JudgeMode.WHITESPACE, "abc");
+        assertTrue(feed(judge, "abc"));
+        assertFalse(feed(judge, "d"));
+        assertEquals("Output differs", judge.verdict().getMessage());
+    }
+
+    @Test
+    void whitespaceReportsMissingAndExtraTokens() {
+        OutputJudge missing = judge(JudgeMode.WHITESPACE, "1 2");
+        assertTrue(feed(missing, "1 "));
+        JudgeVerdict verdict = missing.verdict();
+        assertEquals("Output ended early", verdict.getMessage());
+        assertEquals("2", verdict.getExpected());
+
+        OutputJudge extra = judge(JudgeMode.WHITESPACE, "1");
+        assertFalse(feed(extra, "1 2"));
+        assertEquals("Extra output", extra.verdict().getMessage());
+    }
+
+    @Test
+    void floatComparesWithinTolerance() {
+        OutputJudge judge = judge(JudgeMode.FLOAT, "0.333333 1e6 word");
+        assertTrue(feed(judge, "0.3333331 1000000.0000001 word\n"));
+        assertTrue(judge.verdict().isAccepted());
+
+        OutputJudge wrong = judge(JudgeMode.FLOAT, "0.333333");
+        assertTrue(feed(wrong, "0.3334"));
+        assertEquals(JudgeVerdict.Result.WRONG_ANSWER, wrong.verdict().getResult());
+    }
+
+    @Test
+    void floatRejectsNaNAndNonNumbers() {
+        OutputJudge nan = judge(JudgeMode.FLOAT, "NaN");
+        assertTrue(feed(nan, "NaN"));
+        assertTrue(nan.verdict().isAccepted(), "identical tokens match");
+
+        OutputJudge notNumber = judge(JudgeMode.FLOAT, "1.0");
+        assertTrue(feed(notNumber, "NaN"));
+        assertFalse(notNumber.verdict().isAccepted());
+    }
+
+    @Test
+    void floatStopsOnTokenFarLongerThanExpected() {
+        OutputJudge judge = judge(JudgeMode.FLOAT, "1.5");
+        assertFalse(feed(judge, "1." + "0".repeat(100)));
+        assertTrue(judge.isMismatched());
+    }
+
+    @Test
+    void outputPastTheLimitFailsEvenWhenIgnored() {
+        OutputJudge judge = judge(JudgeMode.WHITESPACE, "1");
+        assertFalse(feed(judge, "1" + " ".repeat((int) OUTPUT_LIMIT)));
+        assertEquals(JudgeVerdict.Result.OUTPUT_LIMIT_EXCEEDED, judge.verdict().getResult());
+    }
+
+    @Test
+    void previewKeepsTheStartOfTheOutput() {
+        OutputJudge judge = judge(JudgeMode.WHITESPACE, "x ".repeat(1500));
+        assertTrue(feed(judge, "x ".repeat(1500)));
+        assertEquals("x ".repeat(512), judge.getPreview());
+    }
+
+    @Test
+    void sealedJudgeIgnoresLaterOutput() {
+        OutputJudge judge = judge(JudgeMode.EXACT, "ok\n");
+        assertTrue(feed(judge, "ok\n"));
+        judge.seal();
+        assertFalse(feed(judge, "late output"));
+        assertTrue(judge.verdict().isAccepted());
+        assertEquals("ok\n", judge.getPreview());
+    }
+}
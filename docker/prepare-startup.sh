@@ -0,0 +1,67 @@
+#!/bin/sh
+
+# Lays out the backend fat jar for fast startup and records a CDS archive for it.
+# Usage: prepare-startup.sh <backend jar built with -Paot> <destination dir>
+#
+#   <dest>/application.jar   application classes and resources
+#   <dest>/lib/              dependency jars
+#   <dest>/application.jsa   classes loaded by a training start, archived by the JVM
+#   <dest>/jvm.args          launches it with AOT and the archive:
+#                            java @<dest>/jvm.args com.coderplatform.CoderPlatformApplication
+#
+# The JVM can only archive classes loaded from plain jars on the class path, not from the
+# nested jars of the fat jar, hence the unpacking. The archive is only valid for the JVM that
+# recorded it, so run this in the image (or on the machine) that will run the backend.
+
+set -e
+
+MAIN_CLASS=com.coderplatform.CoderPlatformApplication
+
+if [ $# -ne 2 ]; then
+    echo "Usage: $0 <backend jar> <destination dir>" >&2
+    exit 1
+fi
+JAR="$(cd "$(dirname "$1")" && pwd)/$(basename "$1")"
+mkdir -p "$2"
+DEST="$(cd "$2" && pwd)"
+WORK="$(mktemp -d)"
+trap 'rm -rf "$WORK"' EXIT
+
+# Unpack into application.jar plus lib/
+rm -rf "$DEST/lib" "$DEST/application.jar" "$DEST/application.jsa" "$DEST/jvm.args"
+mkdir -p "$WORK/unpacked" "$DEST/lib"
+(cd "$WORK/unpacked" && jar xf "$JAR")
+if [ ! -d "$WORK/unpacked/BOOT-INF/classes/com/coderplatform" ]; then
+    echo "$JAR is not a backend jar" >&2
+    exit 1
+fi
+jar --create --file "$DEST/application.jar" -C "$WORK/unpacked/BOOT-INF/classes" .
+cp "$WORK/unpacked/BOOT-INF/lib/"*.jar "$DEST/lib/"
+
+# Absolute paths in a fixed order, so the class path matches the one the archive was made with
+CLASSPATH="$DEST/application.jar"
+for lib in "$DEST"/lib/*.jar; do
+    CLASSPATH="$CLASSPATH:$lib"
+done
+
+# Training start: refresh the context, then exit. Work dirs go to a scratch dir so the
+# training run leaves no journal or cache behind.
+java -XX:ArchiveClassesAtExit="$DEST/application.jsa" \
+    -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh \
+    -cp "$CLASSPATH" "$MAIN_CLASS" \
+    --execution.temp-directory="$WORK/tmp" \
+    --execution.journal-directory="$WORK/journal" \
+    --execution.compile-cache-directory="$WORK/compile-cache" \
+    > "$WORK/training.log" 2>&1 || {
+        cat "$WORK/training.log" >&2
+        exit 1
+    }
+
+cat > "$DEST/jvm.args" <<EOF
+-cp $CLASSPATH
+-XX:SharedArchiveFile=$DEST/application.jsa
+-Dspring.aot.enabled=true
+EOF
+
+echo "Startup layout in $DEST ($(du -h "$DEST/application.jsa" | cut -f1) CDS archive)"
@@ -16,6 +16,7 @@ const OutputPanel: React.FC<OutputPanelProps> = ({ result, isLoading }) => {
         return <CheckCircle className="w-5 h-5 text-green-500" />;
       case 'COMPILE_ERROR':
       case 'RUNTIME_ERROR':
+      case 'WRONG_ANSWER':
       case 'ERROR':
         return <AlertCircle className="w-5 h-5 text-red-500" />;
       case 'TIMEOUT':
@@ -43,6 +44,10 @@ const OutputPanel: React.FC<OutputPanelProps> = ({ result, isLoading }) => {
         return 'Memory Limit Exceeded';
       case 'ERROR':
         return 'Error';
+      case 'CANCELLED':
+        return 'Cancelled';
+      case 'WRONG_ANSWER':
+        return 'Wrong Answer';
       default:
         return 'Output';
     }
@@ -56,6 +61,7 @@ const OutputPanel: React.FC<OutputPanelProps> = ({ result, isLoading }) => {
         return 'text-green-500';
       case 'COMPILE_ERROR':
       case 'RUNTIME_ERROR':
+      case 'WRONG_ANSWER':
       case 'ERROR':
         return 'text-red-500';
       case 'TIMEOUT':
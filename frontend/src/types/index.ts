@@ -15,7 +15,7 @@ export interface ExecutionResponse {
   output: string;
   error: string;
   executionTime: number;
-  status: 'SUCCESS' | 'COMPILE_ERROR' | 'RUNTIME_ERROR' | 'TIMEOUT' | 'MEMORY_EXCEEDED' | 'ERROR';
+  status: 'SUCCESS' | 'COMPILE_ERROR' | 'RUNTIME_ERROR' | 'TIMEOUT' | 'MEMORY_EXCEEDED' | 'ERROR' | 'CANCELLED' | 'WRONG_ANSWER';
 }
 
 export type EditorTheme = 'vs-dark' | 'light';
@@ -0,0 +1,98 @@
+#!/bin/bash
+
+# Startup Benchmark for Coder Platform
+# Measures the time from launching the backend to its first successful /api/execute, for the
+# plain fat jar and for the startup-optimized layout (Spring AOT + CDS archive, see
+# docker/prepare-startup.sh). Build the jar with: cd backend && mvn -Paot package -DskipTests
+
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+NC='\033[0m'
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+PROJECT_DIR="$(dirname "$SCRIPT_DIR")"
+
+JAR="${JAR:-$(ls "$PROJECT_DIR"/backend/target/coder-platform-backend-*.jar 2>/dev/null | head -n1)}"
+PORT="${PORT:-18090}"
+RUNS="${RUNS:-5}"
+STARTUP_DIR="${STARTUP_DIR:-$(mktemp -d)}"
+MAIN_CLASS=com.coderplatform.CoderPlatformApplication
+
+PAYLOAD='{"language":"python","code":"print(\"Hello, World!\")"}'
+
+echo -e "${GREEN}=== Coder Platform Startup Benchmark ===${NC}"
+echo "Jar: $JAR"
+echo "Runs per variant: $RUNS"
+echo ""
+
+if [ ! -f "$JAR" ]; then
+    echo -e "${RED}Error: backend jar not found; build it with mvn -Paot package${NC}"
+    exit 1
+fi
+if ! command -v curl &> /dev/null; then
+    echo -e "${RED}Error: curl is required but not installed${NC}"
+    exit 1
+fi
+if curl -s -o /dev/null "http://localhost:$PORT/api/health"; then
+    echo -e "${RED}Error: port $PORT is already in use${NC}"
+    exit 1
+fi
+
+echo -e "${YELLOW}Preparing startup layout and CDS archive in $STARTUP_DIR...${NC}"
+"$PROJECT_DIR/docker/prepare-startup.sh" "$JAR" "$STARTUP_DIR" || exit 1
+echo ""
+
+SCRATCH="$(mktemp -d)"
+trap 'rm -rf "$SCRATCH"' EXIT
+
+# Starts the backend with the given java arguments and prints the milliseconds until an
+# execution request first succeeds
+measure() {
+    local start=$(date +%s%N)
+    java "$@" --server.port="$PORT" \
+        --execution.journal-directory="$SCRATCH/journal" \
+        --execution.compile-cache-directory="$SCRATCH/compile-cache" \
+        > "$SCRATCH/server.log" 2>&1 &
+    local pid=$!
+
+    while kill -0 $pid 2>/dev/null; do
+        if curl -s -m 5 -X POST "http://localhost:$PORT/api/execute" \
+                -H "Content-Type: application/json" -d "$PAYLOAD" 2>/dev/null | grep -q '"status":"SUCCESS"'; then
+            local end=$(date +%s%N)
+            kill $pid 2>/dev/null
+            wait $pid 2>/dev/null
+            echo $(( (end - start) / 1000000 ))
+            return 0
+        fi
+        sleep 0.05
+    done
+
+    echo -e "${RED}Backend exited before serving a request:${NC}" >&2
+    tail -n 20 "$SCRATCH/server.log" >&2
+    return 1
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+BASELINE=()
+OPTIMIZED=()
+# Alternate the variants so drift on the machine affects both alike
+for run in $(seq 1 "$RUNS"); do
+    b=$(measure -jar "$JAR") || exit 1
+    o=$(measure @"$STARTUP_DIR/jvm.args" "$MAIN_CLASS") || exit 1
+    BASELINE+=("$b")
+    OPTIMIZED+=("$o")
+    echo "Run $run: fat jar ${b}ms, AOT + CDS ${o}ms"
+done
+
+BASELINE_MEDIAN=$(printf '%s\n' "${BASELINE[@]}" | median)
+OPTIMIZED_MEDIAN=$(printf '%s\n' "${OPTIMIZED[@]}" | median)
+
+echo ""
+echo -e "${GREEN}=== Time to first successful /api/execute (median) ===${NC}"
+echo "Fat jar:   ${BASELINE_MEDIAN}ms"
+echo "AOT + CDS: ${OPTIMIZED_MEDIAN}ms"
+echo "Saved:     $(( BASELINE_MEDIAN - OPTIMIZED_MEDIAN ))ms ($(( (BASELINE_MEDIAN - OPTIMIZED_MEDIAN) * 100 / BASELINE_MEDIAN ))%)"